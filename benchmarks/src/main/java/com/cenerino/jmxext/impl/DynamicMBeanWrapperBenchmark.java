@@ -0,0 +1,232 @@
+package com.cenerino.jmxext.impl;
+
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.DynamicMBean;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jboss.weld.environment.se.Weld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the calls served by {@link DynamicMBeanWrapper}, made either directly on a wrapper or through the platform
+ * MBeanServer, against the beans generated by the 'generateBeans' task and managed by a Weld SE container. The 'uncached' path
+ * calls a wrapper that resolves the bean and its reference on every call, as the baseline of the cached 'wrapper' path. Run with
+ * {@code gradle :benchmarks:jmh}, which also reports the allocation rate (gc profiler).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicMBeanWrapperBenchmark {
+
+    private static final Object[] INT_ARGS = { 7 };
+    private static final Object[] LONG_ARGS = { 7L };
+    private static final String[] INT_SIGNATURE = { int.class.getName() };
+    private static final String[] LONG_SIGNATURE = { long.class.getName() };
+    private static final String[] INTEGER_SIGNATURE = { Integer.class.getName() };
+
+    @Param({ "4", "32", "128" })
+    int size;
+
+    @Param({ "wrapper", "uncached", "server" })
+    String path;
+
+    private Weld weld;
+    private MBeanAccess mBean;
+    private String[] attributeNames;
+    private final Attribute attribute = new Attribute("a0", 42);
+
+    @Setup
+    public void setUp() throws Exception {
+        weld = new Weld();
+        BeanManager beanManager = weld.initialize().getBeanManager();
+        Class<?> beanClass = Class.forName("com.cenerino.jmxext.benchmarks.beans.Bean" + size);
+        attributeNames = IntStream.range(0, size).mapToObj(i -> "a" + i).toArray(String[]::new);
+
+        if (path.equals("wrapper")) {
+            Bean<?> bean = beanManager.resolve(beanManager.getBeans(beanClass, new AnyLiteral()));
+            mBean = new WrapperAccess(DynamicMBeanWrapper.wrap(bean, beanManager));
+        } else if (path.equals("uncached")) {
+            mBean = new WrapperAccess(DynamicMBeanWrapper.wrap(beanClass, new UncachedReference(beanClass, beanManager)));
+        } else {
+            ObjectName name = new ObjectName(String.format("%s:type=%s", beanClass.getPackage().getName(), beanClass.getSimpleName()));
+            mBean = new ServerAccess(ManagementFactory.getPlatformMBeanServer(), name);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        weld.shutdown();
+    }
+
+    @Benchmark
+    public Object getAttribute() throws Exception {
+        return mBean.getAttribute("a0");
+    }
+
+    @Benchmark
+    public AttributeList getAttributes() throws Exception {
+        return mBean.getAttributes(attributeNames);
+    }
+
+    @Benchmark
+    public void setAttribute() throws Exception {
+        mBean.setAttribute(attribute);
+    }
+
+    @Benchmark
+    public Object invoke() throws Exception {
+        return mBean.invoke("op0", INT_ARGS, INT_SIGNATURE);
+    }
+
+    @Benchmark
+    public Object invokeOverloaded() throws Exception {
+        return mBean.invoke("compute", LONG_ARGS, LONG_SIGNATURE);
+    }
+
+    @Benchmark
+    public Object invokeOverloadedWithWrapperSignature() throws Exception {
+        return mBean.invoke("compute", INT_ARGS, INTEGER_SIGNATURE);
+    }
+
+    @Benchmark
+    public MBeanInfo getMBeanInfo() throws Exception {
+        return mBean.getMBeanInfo();
+    }
+
+    private interface MBeanAccess {
+
+        Object getAttribute(String name) throws Exception;
+
+        AttributeList getAttributes(String[] names) throws Exception;
+
+        void setAttribute(Attribute attribute) throws Exception;
+
+        Object invoke(String name, Object[] args, String[] signature) throws Exception;
+
+        MBeanInfo getMBeanInfo() throws Exception;
+    }
+
+    private static class WrapperAccess implements MBeanAccess {
+
+        private final DynamicMBean mBean;
+
+        WrapperAccess(DynamicMBean mBean) {
+            this.mBean = mBean;
+        }
+
+        @Override
+        public Object getAttribute(String name) throws Exception {
+            return mBean.getAttribute(name);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] names) {
+            return mBean.getAttributes(names);
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws Exception {
+            mBean.setAttribute(attribute);
+        }
+
+        @Override
+        public Object invoke(String name, Object[] args, String[] signature) throws Exception {
+            return mBean.invoke(name, args, signature);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return mBean.getMBeanInfo();
+        }
+    }
+
+    private static class ServerAccess implements MBeanAccess {
+
+        private final MBeanServer server;
+        private final ObjectName name;
+
+        ServerAccess(MBeanServer server, ObjectName name) {
+            this.server = server;
+            this.name = name;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws Exception {
+            return server.getAttribute(name, attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) throws Exception {
+            return server.getAttributes(name, attributes);
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws Exception {
+            server.setAttribute(name, attribute);
+        }
+
+        @Override
+        public Object invoke(String operation, Object[] args, String[] signature) throws Exception {
+            return server.invoke(name, operation, args, signature);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() throws Exception {
+            return server.getMBeanInfo(name);
+        }
+    }
+
+    // Resolves the bean and its reference on every call, as the wrapper did before caching them, as the baseline of the 'wrapper' path
+    private static class UncachedReference extends ContextualReference {
+
+        private final Class<?> beanClass;
+        private final BeanManager beanManager;
+
+        UncachedReference(Class<?> beanClass, BeanManager beanManager) {
+            super(beanClass, beanManager);
+            this.beanClass = beanClass;
+            this.beanManager = beanManager;
+        }
+
+        @Override
+        Object get() {
+            Annotation[] qualifiers = Stream.of(beanClass.getDeclaredAnnotations())
+                    .filter(annotation -> beanManager.isQualifier(annotation.annotationType()))
+                    .toArray(Annotation[]::new);
+            Bean<?> bean = beanManager.resolve(beanManager.getBeans(beanClass, qualifiers));
+            return beanManager.getReference(bean, beanClass, beanManager.createCreationalContext(bean));
+        }
+    }
+
+    private static class AnyLiteral extends AnnotationLiteral<Any> implements Any {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
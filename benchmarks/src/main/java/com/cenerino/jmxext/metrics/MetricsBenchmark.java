@@ -0,0 +1,46 @@
+package com.cenerino.jmxext.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of updating a single {@link Counter} and {@link Meter} shared by all benchmark threads, against an {@link AtomicLong}.
+ * Run with an increasing number of threads to see how updates scale, e.g. {@code gradle :benchmarks:jmh -Pjmh="MetricsBenchmark -t 32"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final AtomicLong atomic = new AtomicLong();
+    private final Counter counter = new Counter();
+    private final Meter meter = new Meter();
+
+    @Benchmark
+    public long atomicIncrement() {
+        return atomic.incrementAndGet();
+    }
+
+    @Benchmark
+    public void counterIncrement() {
+        counter.increment();
+    }
+
+    @Benchmark
+    public void meterMark() {
+        meter.mark();
+    }
+}
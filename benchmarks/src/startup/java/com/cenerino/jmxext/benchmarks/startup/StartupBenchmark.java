@@ -0,0 +1,62 @@
+package com.cenerino.jmxext.benchmarks.startup;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import javax.enterprise.inject.spi.BeanManager;
+import javax.management.ObjectName;
+
+import org.jboss.weld.environment.se.Weld;
+
+/**
+ * Boots a Weld SE container with the {@code @MBean} classes generated for one size of the startup benchmark and prints the boot
+ * time, the phases timed by {@link StartupTimer}, the number of registered MBeans and the heap retained by the container. The phases
+ * are timed from outside the extension, so they are marked, and explained in the output, as approximations of the time spent in
+ * its observers. Run by the 'startupBenchmark' task, which starts a JVM per size so that every run only sees its own beans.
+ */
+public class StartupBenchmark {
+
+    private static final String APPROXIMATION = "  ~ approximates the time spent in the extension's observers, timed from container events and "
+            + "MBeanServer notifications: discovery includes the container's own discovery, introspection the validation of the deployment.";
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.parseInt(args[0]);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = usedHeapAfterGc(memory);
+
+        long start = System.nanoTime();
+        Weld weld = new Weld();
+        BeanManager beanManager = weld.initialize().getBeanManager();
+        long bootNanos = System.nanoTime() - start;
+
+        StartupTimer timer = beanManager.getExtension(StartupTimer.class);
+        ObjectName pattern = new ObjectName("com.cenerino.jmxext.benchmarks.startup.n" + size + ":*");
+        int registered = ManagementFactory.getPlatformMBeanServer().queryNames(pattern, null).size();
+        long retainedHeap = usedHeapAfterGc(memory) - heapBefore;
+        start = System.nanoTime();
+        weld.shutdown();
+        long shutdownNanos = System.nanoTime() - start;
+        timer.stop();
+
+        System.out.printf("beans=%d properties=%s methods=%s | boot=%.1f ms | ~discovery=%.1f ms ~introspection=%.1f ms ~registration=%.1f ms "
+                + "| shutdown=%.1f ms ~unregistration=%.1f ms | registered=%d | retained heap=%d KB%n", size, args[1], args[2],
+                millis(bootNanos), millis(timer.getDiscoveryNanos()), millis(timer.getIntrospectionNanos()), millis(timer.getRegistrationNanos()),
+                millis(shutdownNanos), millis(timer.getUnregistrationNanos()), registered, retainedHeap / 1024);
+        System.out.println(APPROXIMATION);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) MILLISECONDS.toNanos(1);
+    }
+}
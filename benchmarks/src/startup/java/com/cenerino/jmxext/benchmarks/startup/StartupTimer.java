@@ -0,0 +1,80 @@
+package com.cenerino.jmxext.benchmarks.startup;
+
+import java.lang.management.ManagementFactory;
+
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.Extension;
+import javax.management.InstanceNotFoundException;
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+
+/**
+ * Times the phases of a boot from the outside of the extension: bean discovery from the container events, during which the
+ * extension's observers identify the {@code @MBean} classes, and registration and unregistration from the notifications of the
+ * MBeanServer about the generated MBeans. The platform server sends them synchronously, from the thread registering the MBean.
+ */
+public class StartupTimer implements Extension, NotificationListener {
+
+    private static final String DOMAIN_PREFIX = "com.cenerino.jmxext.benchmarks.startup.";
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private volatile long discoveryStart;
+    private volatile long discoveryEnd;
+    private long firstRegistration;
+    private long lastRegistration;
+    private long firstUnregistration;
+    private long lastUnregistration;
+
+    void beforeBeanDiscovery(@Observes BeforeBeanDiscovery event) throws InstanceNotFoundException {
+        discoveryStart = System.nanoTime();
+        server.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, this, null, null);
+    }
+
+    void afterBeanDiscovery(@Observes AfterBeanDiscovery event) {
+        discoveryEnd = System.nanoTime();
+    }
+
+    // Unregistrations are made in parallel
+    @Override
+    public synchronized void handleNotification(Notification notification, Object handback) {
+        long now = System.nanoTime();
+
+        if (!(notification instanceof MBeanServerNotification)
+                || !((MBeanServerNotification) notification).getMBeanName().getDomain().startsWith(DOMAIN_PREFIX))
+            return;
+
+        if (MBeanServerNotification.REGISTRATION_NOTIFICATION.equals(notification.getType())) {
+            firstRegistration = firstRegistration == 0 ? now : firstRegistration;
+            lastRegistration = now;
+        } else {
+            firstUnregistration = firstUnregistration == 0 ? now : firstUnregistration;
+            lastUnregistration = now;
+        }
+    }
+
+    void stop() throws InstanceNotFoundException, ListenerNotFoundException {
+        server.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, this);
+    }
+
+    long getDiscoveryNanos() {
+        return discoveryEnd - discoveryStart;
+    }
+
+    // From the end of bean discovery to the first MBean registered, hence including the validation of the deployment by the container
+    synchronized long getIntrospectionNanos() {
+        return firstRegistration == 0 ? 0 : firstRegistration - discoveryEnd;
+    }
+
+    synchronized long getRegistrationNanos() {
+        return lastRegistration - firstRegistration;
+    }
+
+    synchronized long getUnregistrationNanos() {
+        return lastUnregistration - firstUnregistration;
+    }
+}
@@ -0,0 +1,212 @@
+package com.cenerino.jmxext.aggregator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+
+import com.cenerino.jmxext.aggregator.Endpoint.Values;
+
+/**
+ * Local, read-only view of an MBean registered in several JVMs. Every numeric attribute {@code x} of the remote MBean is merged into
+ * {@code x.sum}, {@code x.min}, {@code x.max} and {@code x.avg} over the JVMs that answered the last poll, whose number is given by
+ * {@code nodes}. Sums, minimums and maximums of integral attributes are {@code long}s. A poll replaces all the values at once, so
+ * that a bulk read never mixes values of different polls.
+ */
+class AggregateMBean implements DynamicMBean {
+
+    private static final String[] STATISTICS = { "sum", "min", "max", "avg" };
+    private final ObjectName remoteName;
+    private volatile State state = new State(new ArrayList<>(), new HashMap<>(), 0);
+
+    AggregateMBean(ObjectName remoteName) {
+        this.remoteName = remoteName;
+    }
+
+    /**
+     * Merges the values read from every JVM that answered. The MBeanInfo is only rebuilt when the merged attributes change.
+     */
+    void update(List<Values> nodes) {
+        Map<String, Merge> merges = new LinkedHashMap<>();
+
+        for (Values values : nodes) {
+            String[] names = values.attributes.names;
+
+            for (int i = 0; i < names.length; i++) {
+                boolean integral = values.attributes.integral[i];
+
+                if (values.numbers[i] != null)
+                    merges.computeIfAbsent(names[i], name -> new Merge(integral)).add(values.numbers[i]);
+            }
+        }
+
+        List<Layout> layout = new ArrayList<>(merges.size());
+        Map<String, Object> merged = new HashMap<>(merges.size() * 8);
+        merges.forEach((name, merge) -> {
+            layout.add(new Layout(name, merge.integral));
+            merge.putInto(name, merged);
+        });
+
+        State current = state;
+        state = current.layout.equals(layout) ? new State(current, merged, nodes.size()) : new State(layout, merged, nodes.size());
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if (attribute == null)
+            throw new IllegalArgumentException("Attribute name cannot be null.");
+
+        State current = state;
+        Object value = "nodes".equals(attribute) ? current.nodes : current.values.get(attribute);
+
+        if (value == null)
+            throw new AttributeNotFoundException("Attribute '" + attribute + "' does not exist or is not readable.");
+
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        State current = state;
+        AttributeList list = new AttributeList(attributes.length);
+
+        for (String attribute : attributes) {
+            Object value = "nodes".equals(attribute) ? current.nodes : current.values.get(attribute);
+
+            if (value != null)
+                list.add(new Attribute(attribute, value));
+        }
+
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Attribute '" + attribute.getName() + "' does not exist or is not writable.");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new IllegalArgumentException(String.format("Method '%s' with arg types %s not found.", actionName, Arrays.toString(signature)));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return state.info;
+    }
+
+    // Merged attribute and whether its values are integral
+    private static class Layout {
+
+        private final String name;
+        private final boolean integral;
+
+        Layout(String name, boolean integral) {
+            this.name = name;
+            this.integral = integral;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Layout && ((Layout) other).name.equals(name) && ((Layout) other).integral == integral;
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + (integral ? 1 : 0);
+        }
+    }
+
+    private static class Merge {
+
+        private final boolean integral;
+        private long longSum;
+        private long longMin = Long.MAX_VALUE;
+        private long longMax = Long.MIN_VALUE;
+        private double doubleSum;
+        private double doubleMin = Double.POSITIVE_INFINITY;
+        private double doubleMax = Double.NEGATIVE_INFINITY;
+        private int count;
+
+        Merge(boolean integral) {
+            this.integral = integral;
+        }
+
+        void add(Number number) {
+            count++;
+
+            if (integral) {
+                long value = number.longValue();
+                longSum += value;
+                longMin = Math.min(longMin, value);
+                longMax = Math.max(longMax, value);
+            } else {
+                double value = number.doubleValue();
+                doubleSum += value;
+                doubleMin = Math.min(doubleMin, value);
+                doubleMax = Math.max(doubleMax, value);
+            }
+        }
+
+        void putInto(String name, Map<String, Object> values) {
+            values.put(name + ".sum", integral ? (Object) longSum : doubleSum);
+            values.put(name + ".min", integral ? (Object) longMin : doubleMin);
+            values.put(name + ".max", integral ? (Object) longMax : doubleMax);
+            values.put(name + ".avg", (integral ? (double) longSum : doubleSum) / count);
+        }
+    }
+
+    private class State {
+
+        private final List<Layout> layout;
+        private final MBeanInfo info;
+        private final Map<String, Object> values;
+        private final int nodes;
+
+        State(List<Layout> layout, Map<String, Object> values, int nodes) {
+            this.layout = layout;
+            this.info = createInfo(layout);
+            this.values = values;
+            this.nodes = nodes;
+        }
+
+        State(State previous, Map<String, Object> values, int nodes) {
+            this.layout = previous.layout;
+            this.info = previous.info;
+            this.values = values;
+            this.nodes = nodes;
+        }
+
+        private MBeanInfo createInfo(List<Layout> layout) {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>(layout.size() * STATISTICS.length + 1);
+            attributes.add(new MBeanAttributeInfo("nodes", "int", "Number of JVMs merged", true, false, false));
+
+            for (Layout attribute : layout) {
+                for (String statistic : STATISTICS) {
+                    String type = attribute.integral && !"avg".equals(statistic) ? "long" : "double";
+                    attributes.add(new MBeanAttributeInfo(attribute.name + "." + statistic, type,
+                            String.format("%s of '%s' over all JVMs", statistic, attribute.name), true, false, false));
+                }
+            }
+
+            return new MBeanInfo(AggregateMBean.class.getName(), "Merged view of " + remoteName,
+                    attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null, new MBeanOperationInfo[0], null);
+        }
+    }
+}
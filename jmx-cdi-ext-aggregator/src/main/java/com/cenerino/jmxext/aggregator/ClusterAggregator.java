@@ -0,0 +1,282 @@
+package com.cenerino.jmxext.aggregator;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.remote.JMXServiceURL;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cenerino.jmxext.aggregator.Endpoint.Values;
+
+/**
+ * Merges the MBeans registered by the extension in several JVMs, typically the replicas of an application running on the same host,
+ * into local MBeans. Each MBean {@code com.acme:type=Orders} found in any of the JVMs is exposed as
+ * {@code com.acme:type=Orders,view=cluster}, with the sum, minimum, maximum and average of each of its numeric attributes (see
+ * {@link AggregateMBean}).
+ * <p>
+ * Every poll reads all the JVMs at once, with one bulk {@code getAttributes} call per MBean, and waits at most
+ * {@code com.cenerino.jmxext.aggregator.timeoutMillis} (500 ms) for each of them. As the reads of all the JVMs are issued at the
+ * same instant, a single deadline gives each JVM that timeout from the moment its own reads are issued, without a timer per JVM.
+ * A JVM that did not answer in time is not polled again until its pending calls are answered, so that a slow JVM never piles up
+ * calls; its late answer is merged by the next poll, so that a JVM steadily slower than the timeout still contributes, one poll
+ * behind. Polls are made every
+ * {@code com.cenerino.jmxext.aggregator.pollMillis} (1000 ms) by {@link #start()}, on {@code com.cenerino.jmxext.aggregator.threads}
+ * (32) threads.
+ */
+public class ClusterAggregator implements ClusterAggregatorMXBean, AutoCloseable {
+
+    static final String POLL_MILLIS_PROPERTY = "com.cenerino.jmxext.aggregator.pollMillis";
+    static final String TIMEOUT_MILLIS_PROPERTY = "com.cenerino.jmxext.aggregator.timeoutMillis";
+    static final String THREADS_PROPERTY = "com.cenerino.jmxext.aggregator.threads";
+    public static final ObjectName OBJECT_NAME = objectName("jmxext:type=Aggregator");
+    private static final Logger logger = LoggerFactory.getLogger(ClusterAggregator.class);
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private final MBeanServer server;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final Map<Endpoint, CompletableFuture<Map<ObjectName, Values>>> pending = new HashMap<>();
+    private final Map<ObjectName, AggregateMBean> aggregates = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final ExecutorService executor;
+    private ScheduledExecutorService poller;
+    private volatile int respondingEndpoints;
+    private volatile long polls;
+    private volatile long lastPollNanos;
+
+    /**
+     * @param server the MBeanServer the merged MBeans are registered in
+     * @param urls JMX connector addresses of the JVMs, e.g. {@code service:jmx:rmi:///jndi/rmi://localhost:9010/jmxrmi}
+     */
+    public ClusterAggregator(MBeanServer server, List<JMXServiceURL> urls) {
+        this(server, urls, Long.getLong(TIMEOUT_MILLIS_PROPERTY, 500), Integer.getInteger(THREADS_PROPERTY, 32));
+    }
+
+    ClusterAggregator(MBeanServer server, List<JMXServiceURL> urls, long timeoutMillis, int threads) {
+        this.server = server;
+        this.timeoutNanos = MILLISECONDS.toNanos(timeoutMillis);
+        this.executor = Executors.newFixedThreadPool(threads, daemon("jmxext-aggregator-"));
+        urls.forEach(url -> endpoints.add(new Endpoint(url)));
+    }
+
+    static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Registers {@code jmxext:type=Aggregator} and starts polling the JVMs in the background.
+     */
+    public synchronized void start() throws Exception {
+        if (poller != null)
+            return;
+
+        server.registerMBean(new StandardMBean(this, ClusterAggregatorMXBean.class, true), OBJECT_NAME);
+        long pollMillis = Long.getLong(POLL_MILLIS_PROPERTY, 1000);
+        poller = Executors.newSingleThreadScheduledExecutor(daemon("jmxext-aggregator-poller-"));
+        poller.scheduleWithFixedDelay(this::pollQuietly, 0, pollMillis, MILLISECONDS);
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Cluster could not be polled.", e);
+        }
+    }
+
+    /**
+     * Reads all the JVMs once and updates the merged MBeans, returning when every JVM answered or the timeout elapsed.
+     */
+    public synchronized void poll() {
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+
+        Map<Endpoint, Map<ObjectName, Values>> late = new HashMap<>();
+
+        for (Endpoint endpoint : endpoints) {
+            CompletableFuture<Map<ObjectName, Values>> previous = pending.get(endpoint);
+
+            if (previous != null && previous.isDone())
+                late.put(endpoint, lateResult(endpoint, previous));
+
+            if (previous == null || previous.isDone())
+                pending.put(endpoint, endpoint.poll(executor));
+        }
+
+        Map<ObjectName, List<Values>> merged = new HashMap<>();
+        int responding = 0;
+        int contributing = 0;
+
+        for (Endpoint endpoint : endpoints) {
+            Map<ObjectName, Values> values = await(endpoint, deadline);
+
+            if (values != null) {
+                pending.remove(endpoint);
+
+                if (endpoint.isConnected())
+                    responding++;
+            } else {
+                values = late.get(endpoint);
+            }
+
+            if (values == null || !endpoint.isConnected())
+                continue;
+
+            contributing++;
+            values.forEach((name, value) -> merged.computeIfAbsent(name, key -> new ArrayList<>()).add(value));
+        }
+
+        merged.forEach((name, values) -> aggregateOf(name).update(values));
+
+        // Without values from every JVM, a missing MBean may still be registered in the ones that gave none
+        if (contributing == endpoints.size())
+            aggregates.keySet().stream().filter(name -> !merged.containsKey(name)).collect(Collectors.toList()).forEach(this::unregister);
+
+        respondingEndpoints = responding;
+        lastPollNanos = System.nanoTime() - start;
+        polls++;
+    }
+
+    // Answer to the reads of an earlier poll, which came after its deadline
+    private static Map<ObjectName, Values> lateResult(Endpoint endpoint, CompletableFuture<Map<ObjectName, Values>> previous) {
+        try {
+            return previous.getNow(null);
+        } catch (RuntimeException e) {
+            logger.debug("Endpoint '{}' could not be polled.", endpoint.getUrl());
+            return null;
+        }
+    }
+
+    private Map<ObjectName, Values> await(Endpoint endpoint, long deadline) {
+        try {
+            return pending.get(endpoint).get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.debug("Endpoint '{}' did not answer in time.", endpoint.getUrl());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn(String.format("Endpoint '%s' could not be polled.", endpoint.getUrl()), e);
+            pending.remove(endpoint);
+        }
+
+        return null;
+    }
+
+    private AggregateMBean aggregateOf(ObjectName remoteName) {
+        AggregateMBean aggregate = aggregates.get(remoteName);
+
+        if (aggregate != null)
+            return aggregate;
+
+        aggregate = new AggregateMBean(remoteName);
+        aggregates.put(remoteName, aggregate);
+
+        try {
+            server.registerMBean(aggregate, localName(remoteName));
+            logger.debug("MBean '{}' registered successfully.", localName(remoteName));
+        } catch (Exception e) {
+            logger.warn(String.format("Merged view of MBean '%s' could not be registered.", remoteName), e);
+        }
+
+        return aggregate;
+    }
+
+    private void unregister(ObjectName remoteName) {
+        aggregates.remove(remoteName);
+
+        try {
+            server.unregisterMBean(localName(remoteName));
+            logger.debug("MBean '{}' unregistered successfully.", localName(remoteName));
+        } catch (Exception e) {
+            logger.warn(String.format("Error to unregister MBean '%s'.", localName(remoteName)), e);
+        }
+    }
+
+    /**
+     * @return the name under which the merged view of a remote MBean is registered
+     */
+    public static ObjectName localName(ObjectName remoteName) {
+        return objectName(remoteName.getCanonicalName() + ",view=cluster");
+    }
+
+    /**
+     * Stops polling, unregisters all the MBeans of the aggregator and closes the connections to the JVMs.
+     */
+    @Override
+    public synchronized void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+
+            try {
+                server.unregisterMBean(OBJECT_NAME);
+            } catch (Exception e) {
+                logger.warn(String.format("Error to unregister MBean '%s'.", OBJECT_NAME), e);
+            }
+        }
+
+        new ArrayList<>(aggregates.keySet()).forEach(this::unregister);
+        executor.shutdownNow();
+        endpoints.forEach(Endpoint::disconnect);
+    }
+
+    @Override
+    public List<String> getEndpoints() {
+        return endpoints.stream().map(endpoint -> endpoint.getUrl().toString()).collect(Collectors.toList());
+    }
+
+    @Override
+    public int getConnectedEndpoints() {
+        return (int) endpoints.stream().filter(Endpoint::isConnected).count();
+    }
+
+    @Override
+    public int getRespondingEndpoints() {
+        return respondingEndpoints;
+    }
+
+    @Override
+    public int getAggregates() {
+        return aggregates.size();
+    }
+
+    @Override
+    public long getPolls() {
+        return polls;
+    }
+
+    @Override
+    public double getLastPollMillis() {
+        return lastPollNanos / 1e6;
+    }
+}
@@ -0,0 +1,24 @@
+package com.cenerino.jmxext.aggregator;
+
+import java.util.List;
+
+/**
+ * Management interface of the {@code jmxext:type=Aggregator} MBean, which reports how the JVMs of a cluster are polled.
+ */
+public interface ClusterAggregatorMXBean {
+
+    List<String> getEndpoints();
+
+    int getConnectedEndpoints();
+
+    /**
+     * @return the number of JVMs that answered the last poll within the timeout
+     */
+    int getRespondingEndpoints();
+
+    int getAggregates();
+
+    long getPolls();
+
+    double getLastPollMillis();
+}
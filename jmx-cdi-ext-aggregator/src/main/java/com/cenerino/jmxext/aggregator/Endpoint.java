@@ -0,0 +1,276 @@
+package com.cenerino.jmxext.aggregator;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.NotificationFilterSupport;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Connection to the MBeanServer of one JVM, along with the numeric attributes of the MBeans registered there by the extension. The
+ * catalogue of attributes is only refreshed after an MBean is registered or unregistered in that JVM, and only the MBeanInfo of new
+ * MBeans is fetched; every other poll just reads attribute values.
+ */
+class Endpoint {
+
+    static final ObjectName STATS = ClusterAggregator.objectName("jmxext:type=Stats");
+    private static final Logger logger = LoggerFactory.getLogger(Endpoint.class);
+    private final JMXServiceURL url;
+    private final Map<ObjectName, NumericAttributes> catalogue = new ConcurrentHashMap<>();
+    private volatile JMXConnector connector;
+    private volatile MBeanServerConnection connection;
+    private volatile boolean stale = true;
+
+    Endpoint(JMXServiceURL url) {
+        this.url = url;
+    }
+
+    JMXServiceURL getUrl() {
+        return url;
+    }
+
+    boolean isConnected() {
+        return connection != null;
+    }
+
+    /**
+     * Reads the numeric attributes of every MBean, with one bulk call per MBean. All the calls are issued at once, so that they are
+     * pipelined over the connection instead of waiting for each other.
+     *
+     * @return the values of every MBean that could be read
+     */
+    CompletableFuture<Map<ObjectName, Values>> poll(Executor executor) {
+        return CompletableFuture.supplyAsync(this::refresh, executor).thenCompose(beans -> {
+            List<CompletableFuture<Values>> reads = beans.stream()
+                    .map(attributes -> CompletableFuture.supplyAsync(() -> read(attributes), executor))
+                    .collect(toList());
+
+            return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[reads.size()])).handle((done, e) -> {
+                Map<ObjectName, Values> values = new HashMap<>();
+
+                for (CompletableFuture<Values> read : reads) {
+                    Values value = read.getNow(null);
+
+                    if (value != null)
+                        values.put(value.attributes.name, value);
+                }
+
+                return values;
+            });
+        });
+    }
+
+    private Collection<NumericAttributes> refresh() {
+        try {
+            MBeanServerConnection current = connect();
+
+            if (stale) {
+                stale = false;
+                discover(current);
+            }
+        } catch (Exception e) {
+            logger.warn(String.format("Endpoint '%s' could not be polled.", url), e);
+            disconnect();
+            return new ArrayList<>();
+        }
+
+        return catalogue.values();
+    }
+
+    private MBeanServerConnection connect() throws IOException {
+        MBeanServerConnection current = connection;
+
+        if (current != null)
+            return current;
+
+        JMXConnector newConnector = JMXConnectorFactory.connect(url);
+        newConnector.addConnectionNotificationListener((notification, handback) -> {
+            if (JMXConnectionNotification.FAILED.equals(notification.getType()) || JMXConnectionNotification.CLOSED.equals(notification.getType()))
+                disconnect();
+        }, null, null);
+        current = newConnector.getMBeanServerConnection();
+
+        try {
+            NotificationFilterSupport registrations = new NotificationFilterSupport();
+            registrations.enableType(MBeanServerNotification.REGISTRATION_NOTIFICATION);
+            registrations.enableType(MBeanServerNotification.UNREGISTRATION_NOTIFICATION);
+            current.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, (notification, handback) -> stale = true, registrations, null);
+        } catch (Exception e) {
+            newConnector.close();
+            throw new IOException(String.format("Registrations of endpoint '%s' could not be listened to.", url), e);
+        }
+
+        logger.debug("Connected to endpoint '{}'.", url);
+        connector = newConnector;
+        connection = current;
+        stale = true;
+        return current;
+    }
+
+    private void discover(MBeanServerConnection current) throws Exception {
+        List<ObjectName> names = new ArrayList<>();
+
+        if (current.isRegistered(STATS)) {
+            for (Object name : (Object[]) current.getAttribute(STATS, "MBeans")) {
+                names.add(new ObjectName((String) name));
+            }
+        }
+
+        catalogue.keySet().retainAll(names);
+
+        for (ObjectName name : names) {
+            if (!catalogue.containsKey(name)) {
+                NumericAttributes attributes = NumericAttributes.of(name, current.getMBeanInfo(name).getAttributes());
+
+                if (attributes != null)
+                    catalogue.put(name, attributes);
+            }
+        }
+
+        logger.debug("Endpoint '{}' has {} MBeans with numeric attributes.", url, catalogue.size());
+    }
+
+    private Values read(NumericAttributes attributes) {
+        MBeanServerConnection current = connection;
+
+        if (current == null)
+            return null;
+
+        try {
+            return new Values(attributes, current.getAttributes(attributes.name, attributes.names));
+        } catch (IOException e) {
+            logger.warn(String.format("Endpoint '%s' could not be polled.", url), e);
+            disconnect();
+        } catch (Exception e) {
+            // Unregistered since the catalogue was refreshed
+            logger.debug("MBean '{}' of endpoint '{}' could not be read.", attributes.name, url);
+            stale = true;
+        }
+
+        return null;
+    }
+
+    synchronized void disconnect() {
+        JMXConnector current = connector;
+        connector = null;
+        connection = null;
+        catalogue.clear();
+
+        if (current == null)
+            return;
+
+        try {
+            current.close();
+        } catch (IOException e) {
+            logger.debug("Connection to endpoint '{}' could not be closed.", url);
+        }
+    }
+
+    // Readable attributes of an MBean whose values can be summed, in the order of its MBeanInfo
+    static class NumericAttributes {
+
+        final ObjectName name;
+        final String[] names;
+        final boolean[] integral;
+
+        private NumericAttributes(ObjectName name, List<MBeanAttributeInfo> attributes) {
+            this.name = name;
+            this.names = new String[attributes.size()];
+            this.integral = new boolean[attributes.size()];
+
+            for (int i = 0; i < names.length; i++) {
+                names[i] = attributes.get(i).getName();
+                integral[i] = isIntegral(attributes.get(i).getType());
+            }
+        }
+
+        static NumericAttributes of(ObjectName name, MBeanAttributeInfo[] infos) {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+
+            for (MBeanAttributeInfo info : infos) {
+                if (info.isReadable() && (isIntegral(info.getType()) || isFloating(info.getType())))
+                    attributes.add(info);
+            }
+
+            return attributes.isEmpty() ? null : new NumericAttributes(name, attributes);
+        }
+
+        private static boolean isIntegral(String type) {
+            switch (type) {
+            case "byte":
+            case "short":
+            case "int":
+            case "long":
+            case "java.lang.Byte":
+            case "java.lang.Short":
+            case "java.lang.Integer":
+            case "java.lang.Long":
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        private static boolean isFloating(String type) {
+            switch (type) {
+            case "float":
+            case "double":
+            case "java.lang.Float":
+            case "java.lang.Double":
+                return true;
+            default:
+                return false;
+            }
+        }
+    }
+
+    // Values read from one MBean in a poll, indexed like the attributes of its catalogue entry
+    static class Values {
+
+        final NumericAttributes attributes;
+        final Number[] numbers;
+
+        Values(NumericAttributes attributes, AttributeList values) {
+            this.attributes = attributes;
+            this.numbers = new Number[attributes.names.length];
+            int index = 0;
+
+            // Values are returned in the order they were asked for, without the ones that could not be read
+            for (Attribute value : values.asList()) {
+                while (index < numbers.length && !attributes.names[index].equals(value.getName())) {
+                    index++;
+                }
+
+                if (index == numbers.length)
+                    break;
+
+                if (value.getValue() instanceof Number)
+                    numbers[index] = (Number) value.getValue();
+
+                index++;
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.cenerino.jmxext.aggregator;
+
+import static com.cenerino.jmxext.aggregator.ClusterAggregator.localName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Each endpoint is an MBeanServer of its own behind an RMI connector server, as the one of another JVM would be.
+ */
+public class ClusterAggregatorTest {
+
+    private static final ObjectName ORDERS = ClusterAggregator.objectName("com.acme:type=Orders");
+    private final MBeanServer local = MBeanServerFactory.newMBeanServer();
+    private final List<Node> nodes = new ArrayList<>();
+    private ClusterAggregator aggregator;
+
+    @After
+    public void tearDown() throws Exception {
+        if (aggregator != null)
+            aggregator.close();
+
+        for (Node node : nodes) {
+            node.connectorServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldMergeNumericAttributesOfAllEndpoints() throws Exception {
+        aggregate(500, node(new Orders(1, 1.0, 0)), node(new Orders(2, 2.0, 0)), node(new Orders(6, 3.0, 0)));
+
+        aggregator.poll();
+
+        assertThat(local.getAttribute(localName(ORDERS), "nodes")).isEqualTo(3);
+        assertThat(local.getAttribute(localName(ORDERS), "Count.sum")).isEqualTo(9L);
+        assertThat(local.getAttribute(localName(ORDERS), "Count.min")).isEqualTo(1L);
+        assertThat(local.getAttribute(localName(ORDERS), "Count.max")).isEqualTo(6L);
+        assertThat(local.getAttribute(localName(ORDERS), "Count.avg")).isEqualTo(3.0);
+        assertThat(local.getAttribute(localName(ORDERS), "Latency.max")).isEqualTo(3.0);
+        assertThat(attributeNamesOf(localName(ORDERS))).doesNotContain("Name.sum");
+    }
+
+    @Test
+    public void shouldLeaveOutEndpointsThatDoNotAnswerInTime() throws Exception {
+        aggregate(200, node(new Orders(1, 1.0, 0)), node(new Orders(2, 2.0, 0)), node(new Orders(100, 3.0, 1000)));
+
+        long start = System.nanoTime();
+        aggregator.poll();
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1000);
+        assertThat(local.getAttribute(localName(ORDERS), "nodes")).isEqualTo(2);
+        assertThat(local.getAttribute(localName(ORDERS), "Count.sum")).isEqualTo(3L);
+        assertThat(aggregator.getRespondingEndpoints()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldMergeLateAnswerOfSlowEndpointInNextPoll() throws Exception {
+        aggregate(100, node(new Orders(1, 1.0, 0)), node(new Orders(100, 3.0, 300)));
+        aggregator.poll();
+        Thread.sleep(500);
+
+        aggregator.poll();
+
+        assertThat(local.getAttribute(localName(ORDERS), "nodes")).isEqualTo(2);
+        assertThat(local.getAttribute(localName(ORDERS), "Count.sum")).isEqualTo(101L);
+        assertThat(aggregator.getRespondingEndpoints()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldLeaveOutUnreachableEndpoints() throws Exception {
+        Node stopped = node(new Orders(100, 1.0, 0));
+        stopped.connectorServer.stop();
+        aggregate(500, node(new Orders(1, 1.0, 0)), stopped);
+
+        aggregator.poll();
+
+        assertThat(local.getAttribute(localName(ORDERS), "nodes")).isEqualTo(1);
+        assertThat(local.getAttribute(localName(ORDERS), "Count.sum")).isEqualTo(1L);
+        assertThat(aggregator.getConnectedEndpoints()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldFollowRegistrationsOfEndpoints() throws Exception {
+        Node node = node(new Orders(1, 1.0, 0));
+        aggregate(500, node);
+        aggregator.poll();
+        ObjectName invoices = new ObjectName("com.acme:type=Invoices");
+
+        node.register(invoices, new Orders(5, 1.0, 0));
+        pollUntil(() -> local.isRegistered(localName(invoices)));
+
+        assertThat(local.getAttribute(localName(invoices), "Count.sum")).isEqualTo(5L);
+
+        node.unregister(ORDERS);
+        pollUntil(() -> !local.isRegistered(localName(ORDERS)));
+
+        assertThat(aggregator.getAggregates()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldMergeFiftyEndpointsOfFiveHundredAttributes() throws Exception {
+        Node[] cluster = new Node[50];
+
+        for (int i = 0; i < cluster.length; i++) {
+            cluster[i] = new Node();
+
+            for (int bean = 0; bean < 50; bean++) {
+                cluster[i].register(new ObjectName("com.acme:type=Gauges,id=" + bean), new Gauges(i));
+            }
+
+            nodes.add(cluster[i]);
+        }
+
+        aggregate(1000, cluster);
+
+        // The first polls connect to the endpoints and fetch the MBeanInfo of all their MBeans
+        pollUntil(() -> aggregator.getRespondingEndpoints() == cluster.length);
+
+        assertThat(local.getAttribute(localName(new ObjectName("com.acme:type=Gauges,id=7")), "nodes")).isEqualTo(50);
+        assertThat(aggregator.getAggregates()).isEqualTo(50);
+        assertThat(local.getAttribute(localName(new ObjectName("com.acme:type=Gauges,id=7")), "A9.sum")).isEqualTo(1225L);
+    }
+
+    private void aggregate(long timeoutMillis, Node... cluster) {
+        List<JMXServiceURL> urls = new ArrayList<>();
+
+        for (Node node : cluster) {
+            urls.add(node.url);
+        }
+
+        aggregator = new ClusterAggregator(local, urls, timeoutMillis, 32);
+    }
+
+    private void pollUntil(Condition condition) throws Exception {
+        for (int i = 0; i < 100 && !condition.holds(); i++) {
+            aggregator.poll();
+            Thread.sleep(50);
+        }
+
+        assertThat(condition.holds()).isTrue();
+    }
+
+    private List<String> attributeNamesOf(ObjectName name) throws Exception {
+        List<String> names = new ArrayList<>();
+
+        for (MBeanAttributeInfo attribute : local.getMBeanInfo(name).getAttributes()) {
+            names.add(attribute.getName());
+        }
+
+        return names;
+    }
+
+    private Node node(Orders orders) throws Exception {
+        Node node = new Node();
+        node.register(ORDERS, orders);
+        nodes.add(node);
+        return node;
+    }
+
+    private interface Condition {
+
+        boolean holds() throws Exception;
+    }
+
+    // MBeanServer standing for another JVM, with the MBeans the extension would have registered there
+    private static class Node {
+
+        private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        private final Stats stats = new Stats();
+        private final JMXConnectorServer connectorServer;
+        private final JMXServiceURL url;
+
+        Node() throws Exception {
+            server.registerMBean(new StandardMBean(stats, StatsMXBean.class, true), Endpoint.STATS);
+            connectorServer = JMXConnectorServerFactory.newJMXConnectorServer(new JMXServiceURL("service:jmx:rmi://localhost"), null, server);
+            connectorServer.start();
+            url = connectorServer.getAddress();
+        }
+
+        void register(ObjectName name, Object mBean) throws Exception {
+            stats.names.add(name.getCanonicalName());
+            server.registerMBean(mBean, name);
+        }
+
+        void unregister(ObjectName name) throws Exception {
+            stats.names.remove(name.getCanonicalName());
+            server.unregisterMBean(name);
+        }
+    }
+
+    // Dummy MBeans used by the tests above
+
+    public interface StatsMXBean {
+
+        List<String> getMBeans();
+    }
+
+    public static class Stats implements StatsMXBean {
+
+        private final List<String> names = new CopyOnWriteArrayList<>();
+
+        @Override
+        public List<String> getMBeans() {
+            return names;
+        }
+    }
+
+    public interface OrdersMBean {
+
+        int getCount();
+
+        double getLatency();
+
+        String getName();
+    }
+
+    public static class Orders implements OrdersMBean {
+
+        private final int count;
+        private final double latency;
+        private final long delayMillis;
+
+        Orders(int count, double latency, long delayMillis) {
+            this.count = count;
+            this.latency = latency;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public int getCount() {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return count;
+        }
+
+        @Override
+        public double getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String getName() {
+            return "orders";
+        }
+    }
+
+    public interface GaugesMBean {
+
+        long getA0();
+
+        long getA1();
+
+        long getA2();
+
+        long getA3();
+
+        long getA4();
+
+        long getA5();
+
+        long getA6();
+
+        long getA7();
+
+        long getA8();
+
+        long getA9();
+    }
+
+    public static class Gauges implements GaugesMBean {
+
+        private final long value;
+
+        Gauges(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public long getA0() {
+            return value;
+        }
+
+        @Override
+        public long getA1() {
+            return value;
+        }
+
+        @Override
+        public long getA2() {
+            return value;
+        }
+
+        @Override
+        public long getA3() {
+            return value;
+        }
+
+        @Override
+        public long getA4() {
+            return value;
+        }
+
+        @Override
+        public long getA5() {
+            return value;
+        }
+
+        @Override
+        public long getA6() {
+            return value;
+        }
+
+        @Override
+        public long getA7() {
+            return value;
+        }
+
+        @Override
+        public long getA8() {
+            return value;
+        }
+
+        @Override
+        public long getA9() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.cenerino.jmxext.processor;
+
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Generates an {@code MBeanMetadataProvider} for every class annotated with {@code @MBean}, so that the extension does not need to
+ * introspect the class when the container boots. Attributes and operations follow the same JavaBeans rules applied by
+ * {@link java.beans.Introspector} at runtime. Classes that cannot be referenced from their own package (e.g. private nested classes)
+ * are skipped and keep being introspected at runtime.
+ */
+@SupportedAnnotationTypes(MBeanMetadataProcessor.MBEAN_ANNOTATION)
+public class MBeanMetadataProcessor extends AbstractProcessor {
+
+    static final String MBEAN_ANNOTATION = "com.cenerino.jmxext.MBean";
+    private static final String CACHED_ATTRIBUTE = "com.cenerino.jmxext.CachedAttribute";
+    private static final String SAMPLED = "com.cenerino.jmxext.Sampled";
+    private static final String WATCHED = "com.cenerino.jmxext.Watched";
+    private static final String CONSISTENT_ATTRIBUTES = "com.cenerino.jmxext.ConsistentAttributes";
+    static final String SUFFIX = "$$JmxMetadata";
+    private static final String SPI_PACKAGE = "com.cenerino.jmxext.spi";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (isAccessibleClass(type)) {
+                    generateMetadata(type);
+                } else {
+                    processingEnv.getMessager().printMessage(Kind.NOTE, "Metadata not generated. Class will be introspected at runtime.", type);
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isAccessibleClass(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(PRIVATE))
+            return false;
+
+        if (type.getNestingKind() == NestingKind.TOP_LEVEL)
+            return true;
+
+        return type.getNestingKind() == NestingKind.MEMBER && type.getModifiers().contains(STATIC) && isAccessibleClass((TypeElement) type.getEnclosingElement());
+    }
+
+    private void generateMetadata(TypeElement type) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        List<ExecutableElement> methods = publicMethods(type);
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter())) {
+            if (!packageName.isEmpty())
+                out.printf("package %s;%n%n", packageName);
+
+            out.printf("// Generated by %s. Do not edit.%n", getClass().getName());
+            out.printf("public final class %s implements %s.MBeanMetadataProvider {%n%n", simpleName, SPI_PACKAGE);
+            out.printf("    @Override%n");
+            out.printf("    @SuppressWarnings({ \"rawtypes\", \"unchecked\" })%n");
+            out.printf("    public void describe(%s.MBeanMetadataBuilder builder) {%n", SPI_PACKAGE);
+
+            for (Property property : properties(methods).values()) {
+                writeAttribute(out, type, property);
+            }
+
+            for (ExecutableElement method : methods) {
+                writeOperation(out, type, method);
+            }
+
+            out.printf("    }%n}%n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "Metadata could not be generated: " + e.getMessage(), type);
+        }
+    }
+
+    private List<ExecutableElement> publicMethods(TypeElement type) {
+        return ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type)).stream()
+                .filter(method -> method.getModifiers().contains(PUBLIC))
+                .filter(method -> !((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals(Object.class.getName()))
+                .filter(method -> !isCallbackMethod(type, method))
+                .collect(Collectors.toList());
+    }
+
+    // Same exclusions as the runtime introspection: methods through which the extension talks to the bean are not operations
+    private boolean isCallbackMethod(TypeElement type, ExecutableElement method) {
+        TypeElement consistentAttributes = processingEnv.getElementUtils().getTypeElement(CONSISTENT_ATTRIBUTES);
+        TypeElement runnable = processingEnv.getElementUtils().getTypeElement(Runnable.class.getName());
+
+        return consistentAttributes != null && processingEnv.getTypeUtils().isAssignable(type.asType(), consistentAttributes.asType())
+                && method.getSimpleName().contentEquals("readSnapshot") && method.getParameters().size() == 1
+                && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), runnable.asType());
+    }
+
+    // Properties sorted by name, as java.beans.Introspector does
+    private Map<String, Property> properties(List<ExecutableElement> methods) {
+        Map<String, Property> properties = new TreeMap<>();
+        List<ExecutableElement> setters = new ArrayList<>();
+
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(STATIC))
+                continue;
+
+            String name = method.getSimpleName().toString();
+            int parameters = method.getParameters().size();
+            TypeKind returnKind = method.getReturnType().getKind();
+
+            if (parameters == 0 && name.length() > 2 && name.startsWith("is") && returnKind == TypeKind.BOOLEAN) {
+                properties.put(decapitalize(name.substring(2)), new Property(decapitalize(name.substring(2)), method, true));
+            } else if (parameters == 0 && name.length() > 3 && name.startsWith("get") && returnKind != TypeKind.VOID) {
+                properties.putIfAbsent(decapitalize(name.substring(3)), new Property(decapitalize(name.substring(3)), method, false));
+            } else if (parameters == 1 && name.length() > 3 && name.startsWith("set") && returnKind == TypeKind.VOID) {
+                setters.add(method);
+            }
+        }
+
+        for (ExecutableElement setter : setters) {
+            String name = decapitalize(setter.getSimpleName().toString().substring(3));
+            TypeMirror type = erasure(setter.getParameters().get(0).asType());
+            Property property = properties.computeIfAbsent(name, key -> new Property(key, type));
+
+            if (property.setter == null && processingEnv.getTypeUtils().isSameType(property.type, type))
+                property.setter = setter;
+        }
+
+        return properties;
+    }
+
+    private void writeAttribute(PrintWriter out, TypeElement type, Property property) {
+        String bean = String.format("((%s) bean)", typeName(type.asType()));
+        String reader = property.getter == null ? "null" : String.format("bean -> %s.%s()", bean, property.getter.getSimpleName());
+        String writer = property.setter == null ? "null"
+                : String.format("(bean, value) -> %s.%s((%s) value)", bean, property.setter.getSimpleName(), castTypeName(property.type));
+
+        long cacheTtlMillis = property.getter == null ? 0 : durationMillis(property.getter, CACHED_ATTRIBUTE, "ttl");
+        long samplingIntervalMillis = property.getter == null ? 0 : durationMillis(property.getter, SAMPLED, "interval");
+
+        if (cacheTtlMillis > 0) {
+            out.printf("        builder.attribute(\"%s\", %s.class, %s, %s, %s, %dL);%n", property.name, typeName(property.type), property.is, reader,
+                    writer, cacheTtlMillis);
+        } else {
+            out.printf("        builder.attribute(\"%s\", %s.class, %s, %s, %s);%n", property.name, typeName(property.type), property.is, reader, writer);
+        }
+
+        if (samplingIntervalMillis > 0)
+            out.printf("        builder.sampled(\"%s\", %dL);%n", property.name, samplingIntervalMillis);
+
+        if (property.getter != null && isAnnotated(property.getter, WATCHED))
+            out.printf("        builder.watched(\"%s\");%n", property.name);
+    }
+
+    private static boolean isAnnotated(ExecutableElement method, String annotationName) {
+        return method.getAnnotationMirrors().stream()
+                .anyMatch(annotation -> ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName));
+    }
+
+    // Duration in milliseconds of a getter annotation made of an amount and a TimeUnit (named 'unit'), or 0 if it is not present
+    private long durationMillis(ExecutableElement getter, String annotationName, String amountName) {
+        for (AnnotationMirror annotation : getter.getAnnotationMirrors()) {
+            if (!((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName))
+                continue;
+
+            long amount = 0;
+            TimeUnit unit = TimeUnit.SECONDS;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : processingEnv.getElementUtils()
+                    .getElementValuesWithDefaults(annotation).entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals(amountName))
+                    amount = (Long) value.getValue().getValue();
+                else if (value.getKey().getSimpleName().contentEquals("unit"))
+                    unit = TimeUnit.valueOf(((VariableElement) value.getValue().getValue()).getSimpleName().toString());
+            }
+
+            return unit.toMillis(amount);
+        }
+
+        return 0;
+    }
+
+    private void writeOperation(PrintWriter out, TypeElement type, ExecutableElement method) {
+        List<TypeMirror> parameterTypes = method.getParameters().stream().map(param -> erasure(param.asType())).collect(Collectors.toList());
+        String target = method.getModifiers().contains(STATIC) ? typeName(type.asType()) : String.format("((%s) bean)", typeName(type.asType()));
+        String arguments = IntStream.range(0, parameterTypes.size())
+                .mapToObj(i -> String.format("(%s) args[%d]", castTypeName(parameterTypes.get(i)), i))
+                .collect(Collectors.joining(", "));
+        String call = String.format("%s.%s(%s)", target, method.getSimpleName(), arguments);
+        String invoker = method.getReturnType().getKind() == TypeKind.VOID ? String.format("(bean, args) -> { %s; return null; }", call)
+                : String.format("(bean, args) -> %s", call);
+        String signature = parameterTypes.stream().map(param -> typeName(param) + ".class").collect(Collectors.joining(", "));
+
+        out.printf("        builder.operation(\"%s\", %s.class, new Class<?>[] { %s }, %s);%n", method.getSimpleName(),
+                typeName(erasure(method.getReturnType())), signature, invoker);
+    }
+
+    private TypeMirror erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    // Source name of an erased type, without any type annotation javac would otherwise print
+    private String typeName(TypeMirror type) {
+        switch (type.getKind()) {
+        case ARRAY:
+            return typeName(erasure(((ArrayType) type).getComponentType())) + "[]";
+        case DECLARED:
+            return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        default:
+            return type.getKind().name().toLowerCase();
+        }
+    }
+
+    private String castTypeName(TypeMirror type) {
+        return type.getKind().isPrimitive() ? typeName(processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).asType())
+                : typeName(type);
+    }
+
+    // Same rule as java.beans.Introspector.decapitalize
+    static String decapitalize(String name) {
+        if (name.isEmpty() || (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))))
+            return name;
+
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private class Property {
+
+        private final String name;
+        private final TypeMirror type;
+        private final ExecutableElement getter;
+        private final boolean is;
+        private ExecutableElement setter;
+
+        Property(String name, ExecutableElement getter, boolean is) {
+            this.name = name;
+            this.type = erasure(getter.getReturnType());
+            this.getter = getter;
+            this.is = is;
+        }
+
+        Property(String name, TypeMirror type) {
+            this.name = name;
+            this.type = type;
+            this.getter = null;
+            this.is = false;
+        }
+    }
+}
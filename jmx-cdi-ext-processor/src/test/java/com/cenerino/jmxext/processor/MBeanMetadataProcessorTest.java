@@ -0,0 +1,296 @@
+package com.cenerino.jmxext.processor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.cenerino.jmxext.spi.AttributeReader;
+import com.cenerino.jmxext.spi.AttributeWriter;
+import com.cenerino.jmxext.spi.MBeanMetadataBuilder;
+import com.cenerino.jmxext.spi.MBeanMetadataProvider;
+import com.cenerino.jmxext.spi.OperationInvoker;
+
+public class MBeanMetadataProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sources;
+    private File classes;
+    private ClassLoader classLoader;
+
+    @Before
+    public void setUp() throws IOException {
+        sources = folder.newFolder("src");
+        classes = folder.newFolder("classes");
+    }
+
+    @Test
+    public void shouldGenerateAttributesSortedByName() throws Exception {
+        compile("com.acme.Player", "package com.acme;",
+                "@com.cenerino.jmxext.MBean",
+                "public class Player {",
+                "    private String name; private int age; private boolean retired;",
+                "    public String getName() { return name; }",
+                "    public void setName(String name) { this.name = name; }",
+                "    public int getAge() { return age; }",
+                "    public void setAge(int age) { this.age = age; }",
+                "    public boolean isRetired() { return retired; }",
+                "    public void setRetired(boolean retired) { this.retired = retired; }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Player");
+
+        assertThat(builder.attributes.keySet()).containsExactly("age", "name", "retired");
+        assertThat(builder.types.get("age")).isEqualTo(int.class);
+        assertThat(builder.is.get("retired")).isTrue();
+        assertThat(builder.is.get("name")).isFalse();
+    }
+
+    @Test
+    public void shouldGenerateWorkingAccessors() throws Exception {
+        compile("com.acme.Player", "package com.acme;",
+                "@com.cenerino.jmxext.MBean",
+                "public class Player {",
+                "    private int age;",
+                "    public int getAge() { return age; }",
+                "    public void setAge(int age) { this.age = age; }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Player");
+        Object player = load("com.acme.Player").newInstance();
+        builder.writers.get("age").write(player, 30);
+
+        assertThat(builder.attributes.get("age").read(player)).isEqualTo(30);
+    }
+
+    @Test
+    public void shouldGenerateReadOnlyAndWriteOnlyAttributes() throws Exception {
+        compile("com.acme.Sensor", "package com.acme;",
+                "@com.cenerino.jmxext.MBean",
+                "public class Sensor {",
+                "    public double getReading() { return 1.5; }",
+                "    public void setThreshold(long threshold) { }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Sensor");
+
+        assertThat(builder.attributes.get("reading")).isNotNull();
+        assertThat(builder.writers.get("reading")).isNull();
+        assertThat(builder.attributes.get("threshold")).isNull();
+        assertThat(builder.writers.get("threshold")).isNotNull();
+        assertThat(builder.types.get("threshold")).isEqualTo(long.class);
+    }
+
+    @Test
+    public void shouldGenerateOperationsIncludingStaticAndInheritedMethods() throws Exception {
+        compile("com.acme.Base", "package com.acme;",
+                "public class Base {",
+                "    public int getPopulation() { return 10; }",
+                "}");
+        compile("com.acme.Country", "package com.acme;",
+                "@com.cenerino.jmxext.MBean",
+                "public class Country extends Base {",
+                "    public static int max(int n1, int n2) { return Math.max(n1, n2); }",
+                "    public String greet(String name, java.util.List<String> titles) { return titles.get(0) + \" \" + name; }",
+                "    public void reset() { }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Country");
+        Object country = load("com.acme.Country").newInstance();
+
+        assertThat(builder.operations.keySet()).containsOnly("max", "greet", "reset", "getPopulation");
+        assertThat(builder.signatures.get("greet")).containsExactly(String.class, java.util.List.class);
+        assertThat(builder.returnTypes.get("reset")).isEqualTo(void.class);
+        assertThat(builder.operations.get("max").invoke(null, new Object[] { 3, 7 })).isEqualTo(7);
+        assertThat(builder.operations.get("greet").invoke(country, new Object[] { "Smith", Arrays.asList("Mr.") })).isEqualTo("Mr. Smith");
+        assertThat(builder.operations.get("reset").invoke(country, new Object[] {})).isNull();
+        assertThat(builder.operations.get("getPopulation").invoke(country, new Object[] {})).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldGenerateCacheTimeToLiveOfCachedAttributes() throws Exception {
+        compile("com.acme.Cache", "package com.acme;",
+                "import java.util.concurrent.TimeUnit;",
+                "import com.cenerino.jmxext.CachedAttribute;",
+                "@com.cenerino.jmxext.MBean",
+                "public class Cache {",
+                "    @CachedAttribute(ttl = 5) public int getSize() { return 1; }",
+                "    @CachedAttribute(ttl = 250, unit = TimeUnit.MILLISECONDS) public long getHits() { return 2; }",
+                "    public long getMisses() { return 3; }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Cache");
+
+        assertThat(builder.cacheTtls.get("size")).isEqualTo(5000L);
+        assertThat(builder.cacheTtls.get("hits")).isEqualTo(250L);
+        assertThat(builder.cacheTtls.get("misses")).isZero();
+    }
+
+    @Test
+    public void shouldGenerateSamplingIntervalOfSampledAttributes() throws Exception {
+        compile("com.acme.Queue", "package com.acme;",
+                "import java.util.concurrent.TimeUnit;",
+                "import com.cenerino.jmxext.Sampled;",
+                "@com.cenerino.jmxext.MBean",
+                "public class Queue {",
+                "    @Sampled(interval = 500, unit = TimeUnit.MILLISECONDS) public int getDepth() { return 1; }",
+                "    public int getCapacity() { return 2; }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Queue");
+
+        assertThat(builder.samplingIntervals).containsOnlyKeys("depth").containsEntry("depth", 500L);
+    }
+
+    @Test
+    public void shouldGenerateWatchOfWatchedAttributes() throws Exception {
+        compile("com.acme.Breaker", "package com.acme;",
+                "import com.cenerino.jmxext.Watched;",
+                "@com.cenerino.jmxext.MBean",
+                "public class Breaker {",
+                "    @Watched public boolean isOpen() { return false; }",
+                "    public int getTrips() { return 2; }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Breaker");
+
+        assertThat(builder.watched).containsOnly("open");
+    }
+
+    @Test
+    public void shouldNotGenerateOperationForSnapshotCallback() throws Exception {
+        compile("com.acme.Pool", "package com.acme;",
+                "@com.cenerino.jmxext.MBean",
+                "public class Pool implements com.cenerino.jmxext.ConsistentAttributes {",
+                "    public int getActive() { return 1; }",
+                "    public synchronized void readSnapshot(Runnable reader) { reader.run(); }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Pool");
+
+        assertThat(builder.operations.keySet()).containsOnly("getActive");
+    }
+
+    @Test
+    public void shouldGenerateMetadataForStaticNestedClass() throws Exception {
+        compile("com.acme.Outer", "package com.acme;",
+                "public class Outer {",
+                "    @com.cenerino.jmxext.MBean",
+                "    public static class Inner {",
+                "        public String getLabel() { return \"inner\"; }",
+                "    }",
+                "}");
+
+        RecordingBuilder builder = describe("com.acme.Outer$Inner");
+
+        assertThat(builder.attributes.get("label").read(load("com.acme.Outer$Inner").newInstance())).isEqualTo("inner");
+    }
+
+    @Test
+    public void shouldNotGenerateMetadataForPrivateNestedClass() throws Exception {
+        compile("com.acme.Outer", "package com.acme;",
+                "public class Outer {",
+                "    @com.cenerino.jmxext.MBean",
+                "    private static class Hidden {",
+                "        public String getLabel() { return \"hidden\"; }",
+                "    }",
+                "}");
+
+        assertThat(new File(classes, "com/acme/Outer$Hidden" + MBeanMetadataProcessor.SUFFIX + ".class")).doesNotExist();
+    }
+
+    @Test
+    public void shouldDecapitalizeLikeIntrospector() {
+        assertThat(MBeanMetadataProcessor.decapitalize("Name")).isEqualTo("name");
+        assertThat(MBeanMetadataProcessor.decapitalize("URL")).isEqualTo("URL");
+        assertThat(MBeanMetadataProcessor.decapitalize("X")).isEqualTo("x");
+    }
+
+    private void compile(String className, String... lines) throws IOException {
+        File source = new File(sources, className.replace('.', '/') + ".java");
+        source.getParentFile().mkdirs();
+        Files.write(source.toPath(), String.join("\n", lines).getBytes(UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        String classpath = System.getProperty("java.class.path") + File.pathSeparator + classes.getPath();
+        int status = compiler.run(null, null, null, "-classpath", classpath, "-processor", MBeanMetadataProcessor.class.getName(), "-d",
+                classes.getPath(), "-s", classes.getPath(), source.getPath());
+
+        assertThat(status).isZero();
+    }
+
+    private Class<?> load(String className) throws Exception {
+        if (classLoader == null)
+            classLoader = new URLClassLoader(new URL[] { classes.toURI().toURL() }, getClass().getClassLoader());
+
+        return Class.forName(className, true, classLoader);
+    }
+
+    private RecordingBuilder describe(String className) throws Exception {
+        Class<?> beanClass = load(className);
+        MBeanMetadataProvider provider = (MBeanMetadataProvider) Class.forName(className + MBeanMetadataProvider.SUFFIX, true,
+                beanClass.getClassLoader()).newInstance();
+        RecordingBuilder builder = new RecordingBuilder();
+        provider.describe(builder);
+        return builder;
+    }
+
+    private static class RecordingBuilder implements MBeanMetadataBuilder {
+
+        private final Map<String, AttributeReader> attributes = new LinkedHashMap<>();
+        private final Map<String, AttributeWriter> writers = new LinkedHashMap<>();
+        private final Map<String, Class<?>> types = new LinkedHashMap<>();
+        private final Map<String, Boolean> is = new LinkedHashMap<>();
+        private final Map<String, Long> cacheTtls = new LinkedHashMap<>();
+        private final Map<String, Long> samplingIntervals = new LinkedHashMap<>();
+        private final Set<String> watched = new LinkedHashSet<>();
+        private final Map<String, OperationInvoker> operations = new LinkedHashMap<>();
+        private final Map<String, Class<?>[]> signatures = new LinkedHashMap<>();
+        private final Map<String, Class<?>> returnTypes = new LinkedHashMap<>();
+
+        @Override
+        public void attribute(String name, Class<?> type, boolean is, AttributeReader reader, AttributeWriter writer, long cacheTtlMillis) {
+            this.attributes.put(name, reader);
+            this.writers.put(name, writer);
+            this.types.put(name, type);
+            this.is.put(name, is);
+            this.cacheTtls.put(name, cacheTtlMillis);
+        }
+
+        @Override
+        public void sampled(String name, long intervalMillis) {
+            this.samplingIntervals.put(name, intervalMillis);
+        }
+
+        @Override
+        public void watched(String name) {
+            this.watched.add(name);
+        }
+
+        @Override
+        public void operation(String name, Class<?> returnType, Class<?>[] parameterTypes, OperationInvoker invoker) {
+            this.operations.put(name, invoker);
+            this.signatures.put(name, parameterTypes);
+            this.returnTypes.put(name, returnType);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.cenerino.jmxext;
+
+import java.util.List;
+
+/**
+ * Management interface of the {@code jmxext:type=Stats} MBean, which reports how the MBeans registered by the extension are
+ * accessed. Each MBeanServer the extension registers MBeans with gets its own, covering only the MBeans of that server. Statistics
+ * are only recorded while enabled, either with {@code -Dcom.cenerino.jmxext.statistics=true} or at runtime through the
+ * {@code Enabled} attribute. Clients may read it through a proxy:
+ *
+ * <pre>
+ * AccessStatisticsMXBean stats = JMX.newMXBeanProxy(connection, new ObjectName("jmxext:type=Stats"), AccessStatisticsMXBean.class);
+ * </pre>
+ */
+public interface AccessStatisticsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    List<Entry> getStatistics();
+
+    /**
+     * @return the names of all the MBeans registered by the extension, whether statistics are enabled or not
+     */
+    List<String> getMBeans();
+
+    void reset();
+
+    /**
+     * @return the number of instances of {@code @Dependent} beans currently owned by MBeans, one per registered MBean at most
+     */
+    int getDependentInstances();
+
+    /**
+     * Statistics of one attribute read, attribute write or operation. Latencies are in microseconds.
+     */
+    class Entry {
+
+        private final String objectName;
+        private final String kind;
+        private final String member;
+        private final long calls;
+        private final long errors;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double maxMicros;
+
+        public Entry(String objectName, String kind, String member, long calls, long errors, double meanMicros, double p50Micros,
+                double p99Micros, double maxMicros) {
+            this.objectName = objectName;
+            this.kind = kind;
+            this.member = member;
+            this.calls = calls;
+            this.errors = errors;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public String getObjectName() {
+            return objectName;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getMember() {
+            return member;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getMaxMicros() {
+            return maxMicros;
+        }
+    }
+}
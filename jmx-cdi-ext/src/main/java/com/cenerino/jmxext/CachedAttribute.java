@@ -0,0 +1,22 @@
+package com.cenerino.jmxext;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placed on the getter of an expensive attribute, makes JMX reads serve the last computed value until it is older than the given
+ * time-to-live. Only one caller recomputes an expired value; concurrent readers wait for it instead of calling the getter again.
+ * Writing the attribute through JMX discards the cached value.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface CachedAttribute {
+
+    long ttl();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,11 @@
+package com.cenerino.jmxext;
+
+/**
+ * Implemented by {@code @MBean} beans whose attributes must be read as a coherent snapshot. Bulk reads (e.g. a console refreshing
+ * every attribute at once) run the given reader within {@link #readSnapshot(Runnable)}, typically under the lock that guards the
+ * related counters. The method itself is not exposed as an MBean operation.
+ */
+public interface ConsistentAttributes {
+
+    void readSnapshot(Runnable reader);
+}
@@ -0,0 +1,21 @@
+package com.cenerino.jmxext;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Forwards the CDI events of the given types (and their subtypes), whatever their qualifiers, as JMX notifications from the MBean of
+ * the annotated {@code @MBean} class. The notification type is the name of the event class and its message is the event's
+ * {@code toString()}. Events are handed off to the queue also used by {@link NotificationPublisher} and sent by a background thread,
+ * so the thread firing them never waits for listeners; while the MBean has no listeners, they are discarded right away. The
+ * {@code events.forwarded}, {@code events.coalesced} and {@code events.dropped} attributes of the MBean count them.
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface ForwardEvents {
+
+    Class<?>[] value();
+}
@@ -14,4 +14,24 @@ import java.lang.annotation.Target;
 public @interface MBean {
 
     String description() default EMPTY;
+
+    /**
+     * Whether {@code setAttributes} applies a batch all-or-nothing: if any attribute of the batch is invalid or fails to be written,
+     * the attributes already written are restored to their previous values and none is reported as set. Every attribute written in
+     * such a batch must also be readable, so that its previous value can be restored.
+     */
+    boolean atomicSetAttributes() default false;
+
+    /**
+     * Types of the notifications the bean publishes through a {@link NotificationPublisher}, which are listed in the MBeanInfo.
+     */
+    String[] notificationTypes() default {};
+
+    /**
+     * Whether every instance of the bean gets its own MBean, registered once the instance is constructed and unregistered when it is
+     * destroyed, instead of a single MBean for the class. The ObjectName of each instance is made of the class' one followed by the
+     * key properties given by its {@link ObjectNameKey} getters, or by a sequential {@code id} if it has none. Instances created by the
+     * application rather than by the container are registered through {@link MBeanInstances}.
+     */
+    boolean perInstance() default false;
 }
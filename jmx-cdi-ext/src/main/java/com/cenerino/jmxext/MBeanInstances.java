@@ -0,0 +1,38 @@
+package com.cenerino.jmxext;
+
+import java.util.Map;
+
+import javax.management.ObjectName;
+
+/**
+ * Registers MBeans of individual instances of an {@code @MBean} class, such as the ones created by a producer method or by the
+ * application itself, which the container does not construct. Gotten by injection:
+ *
+ * <pre>
+ * &#64;Inject
+ * private MBeanInstances mBeanInstances;
+ * </pre>
+ *
+ * All the MBeans of a class share its metadata, so each instance only costs its MBean wrapper. At most
+ * {@code com.cenerino.jmxext.maxInstances} instances (100000 by default) are registered at a time; further ones are refused.
+ */
+public interface MBeanInstances {
+
+    /**
+     * Registers the instance with the key properties given by its {@link ObjectNameKey} getters, or with a sequential {@code id}.
+     *
+     * @return the name of the instance's MBean, or {@code null} if it could not be registered
+     */
+    ObjectName register(Object instance);
+
+    /**
+     * @param keyProperties key properties added, in order, to the ObjectName of the instance's class
+     * @return the name of the instance's MBean, or {@code null} if it could not be registered
+     */
+    ObjectName register(Object instance, Map<String, String> keyProperties);
+
+    /**
+     * @return whether the instance had an MBean, which is now unregistered
+     */
+    boolean unregister(Object instance);
+}
@@ -0,0 +1,28 @@
+package com.cenerino.jmxext;
+
+/**
+ * Publishes JMX notifications from the MBean of an {@code @MBean} bean, which gets one by injection:
+ *
+ * <pre>
+ * &#64;Inject
+ * private NotificationPublisher notifications;
+ * </pre>
+ *
+ * Publishing never blocks: notifications are queued and sent to the MBean's listeners in batches by a background thread, at most
+ * {@code com.cenerino.jmxext.notifications.batchSize} (100 by default) every {@code com.cenerino.jmxext.notifications.batchMillis}
+ * milliseconds (100 by default). Identical notifications (same type, message and user data) queued in the same batch are sent once.
+ * When {@code com.cenerino.jmxext.notifications.capacity} notifications (1024 by default) are already queued, new ones are dropped
+ * and counted. The types of notifications published should be declared in {@link MBean#notificationTypes()}.
+ */
+public interface NotificationPublisher {
+
+    /**
+     * @return whether the notification was queued, or {@code false} if it was dropped because the queue is full
+     */
+    boolean publish(String type, String message);
+
+    /**
+     * @return whether the notification was queued, or {@code false} if it was dropped because the queue is full
+     */
+    boolean publish(String type, String message, Object userData);
+}
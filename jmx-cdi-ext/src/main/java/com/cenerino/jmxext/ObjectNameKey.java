@@ -0,0 +1,18 @@
+package com.cenerino.jmxext;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Adds a key property, named after {@link #value()}, to the ObjectName of every instance of an {@link MBean#perInstance()} bean.
+ * The property's value is the one the annotated getter returns once the instance is constructed, quoted if needed.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface ObjectNameKey {
+
+    String value();
+}
@@ -0,0 +1,24 @@
+package com.cenerino.jmxext;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes JMX reads of an attribute return the value last sampled by a background thread, so that they never run the getter nor
+ * resolve the bean. Placed on an {@code @MBean} class, applies to every readable attribute; placed on a getter, applies to that
+ * attribute only (and takes precedence over the class). Sampling runs while the MBean is registered, on a small pool shared by
+ * all MBeans, at the given interval plus a random jitter. Reads made before the first sample is taken call the getter.
+ */
+@Retention(RUNTIME)
+@Target({ TYPE, METHOD })
+public @interface Sampled {
+
+    long interval();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
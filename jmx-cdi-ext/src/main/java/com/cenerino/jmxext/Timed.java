@@ -0,0 +1,25 @@
+package com.cenerino.jmxext;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.interceptor.InterceptorBinding;
+
+/**
+ * Interceptor binding that records the number of calls and the latency of a business method. Placed on an {@code @MBean} class,
+ * applies to every business method of the bean; placed on a method, applies to that method only. Each timed method is published
+ * on the bean's MBean as read-only attributes named after the method (or after the method and its parameter types, when timed
+ * methods are overloaded): {@code <method>.count}, {@code .meanMicros}, {@code .p50Micros}, {@code .p99Micros}, {@code .p999Micros}
+ * and {@code .maxMicros}. The interceptor is enabled by the extension, so no {@code beans.xml} entry is needed.
+ */
+@InterceptorBinding
+@Inherited
+@Retention(RUNTIME)
+@Target({ METHOD, TYPE })
+public @interface Timed {
+}
@@ -0,0 +1,18 @@
+package com.cenerino.jmxext;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Makes the MBean emit an {@link javax.management.AttributeChangeNotification} when the value of the annotated getter's attribute
+ * changes. Watched attributes of all MBeans are compared with their previous values by a single background task, every
+ * {@code com.cenerino.jmxext.watchMillis} milliseconds (1000 by default), and only while the MBean has notification listeners. A
+ * change made through the MBean's {@code setAttribute} is notified right away.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Watched {
+}
@@ -0,0 +1,139 @@
+package com.cenerino.jmxext.impl;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cenerino.jmxext.AccessStatisticsMXBean;
+
+/**
+ * Collects the {@link MBeanStatistics} of every wrapper registered with an MBeanServer and publishes them as {@code jmxext:type=Stats}
+ * of that server, which is registered along with its first wrapper and unregistered along with its last one. Each server has its
+ * own statistics, so that containers sharing a JVM, each with its own server, do not share counters.
+ */
+final class AccessStatistics implements AccessStatisticsMXBean {
+
+    static final String ENABLED_PROPERTY = "com.cenerino.jmxext.statistics";
+    static final ObjectName OBJECT_NAME = objectName("jmxext:type=Stats");
+    private static final Logger logger = LoggerFactory.getLogger(AccessStatistics.class);
+    private static final Map<MBeanServer, AccessStatistics> instances = new IdentityHashMap<>();
+    private volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+    private final Map<ObjectName, Registration> mBeans = new ConcurrentHashMap<>();
+
+    private AccessStatistics() {
+    }
+
+    private static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the statistics of the server, which record the accesses to the MBean while enabled
+     */
+    static synchronized AccessStatistics register(MBeanServer server, ObjectName name, MBeanStatistics statistics,
+            ContextualReference reference) {
+        AccessStatistics instance = instances.computeIfAbsent(server, key -> new AccessStatistics());
+        instance.mBeans.put(name, new Registration(statistics, reference));
+
+        try {
+            if (!server.isRegistered(OBJECT_NAME))
+                server.registerMBean(new StandardMBean(instance, AccessStatisticsMXBean.class, true), OBJECT_NAME);
+        } catch (Exception e) {
+            logger.warn(String.format("MBean '%s' could not be registered.", OBJECT_NAME), e);
+        }
+
+        return instance;
+    }
+
+    static synchronized void unregister(MBeanServer server, ObjectName name) {
+        AccessStatistics instance = instances.get(server);
+
+        if (instance == null)
+            return;
+
+        instance.mBeans.remove(name);
+
+        if (!instance.mBeans.isEmpty())
+            return;
+
+        instances.remove(server);
+
+        try {
+            if (server.isRegistered(OBJECT_NAME))
+                server.unregisterMBean(OBJECT_NAME);
+        } catch (Exception e) {
+            logger.warn(String.format("MBean '%s' could not be unregistered.", OBJECT_NAME), e);
+        }
+    }
+
+    // Read on every access to the MBeans of the server, hence a plain volatile flag
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public List<Entry> getStatistics() {
+        List<Entry> entries = new ArrayList<>();
+        mBeans.forEach((name, mBean) -> mBean.statistics.forEach((kind, member, statistics) -> entries.add(entry(name, kind, member,
+                statistics))));
+        return entries;
+    }
+
+    @Override
+    public List<String> getMBeans() {
+        List<String> names = new ArrayList<>();
+        mBeans.keySet().forEach(name -> names.add(name.getCanonicalName()));
+        return names;
+    }
+
+    private static Entry entry(ObjectName name, String kind, String member, MemberStatistics statistics) {
+        LatencyHistogram latency = statistics.getLatency();
+        return new Entry(name.getCanonicalName(), kind, member, statistics.getCalls(), statistics.getErrors(), micros(latency.getMean()),
+                micros(latency.getPercentile(50)), micros(latency.getPercentile(99)), micros(latency.getMax()));
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1000;
+    }
+
+    @Override
+    public void reset() {
+        mBeans.values().forEach(mBean -> mBean.statistics.reset());
+    }
+
+    @Override
+    public int getDependentInstances() {
+        return (int) mBeans.values().stream().filter(mBean -> mBean.reference.ownsInstance()).count();
+    }
+
+    private static class Registration {
+
+        private final MBeanStatistics statistics;
+        private final ContextualReference reference;
+
+        Registration(MBeanStatistics statistics, ContextualReference reference) {
+            this.statistics = statistics;
+            this.reference = reference;
+        }
+    }
+}
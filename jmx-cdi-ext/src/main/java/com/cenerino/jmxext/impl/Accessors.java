@@ -0,0 +1,138 @@
+package com.cenerino.jmxext.impl;
+
+import static java.lang.invoke.MethodType.genericMethodType;
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isStatic;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cenerino.jmxext.spi.AttributeReader;
+import com.cenerino.jmxext.spi.AttributeWriter;
+import com.cenerino.jmxext.spi.OperationInvoker;
+
+/**
+ * Creates the accessors used by {@link DynamicMBeanWrapper} to reach the bean's members. Method handles are bound once and reused
+ * on every call; members that are not accessible through the public lookup (e.g. public methods of non-public classes) fall back
+ * to plain reflection. Both variants report exceptions of the target as {@link InvocationTargetException}, as reflection does, but let
+ * errors such as {@link OutOfMemoryError} propagate.
+ */
+final class Accessors {
+
+    private static final Logger logger = LoggerFactory.getLogger(Accessors.class);
+    private static final Object[] NO_ARGS = {};
+
+    private Accessors() {
+    }
+
+    static AttributeReader reader(Method getter) {
+        MethodHandle handle = unreflect(getter);
+
+        if (handle == null)
+            return target -> reflectiveInvoke(getter, target, NO_ARGS);
+
+        return new HandleReader(handle);
+    }
+
+    static AttributeWriter writer(Method setter) {
+        MethodHandle handle = unreflect(setter);
+
+        if (handle == null)
+            return (target, value) -> reflectiveInvoke(setter, target, new Object[] { value });
+
+        MethodHandle generic = handle.asType(methodType(void.class, Object.class, Object.class));
+        return new AttributeWriter() {
+            @Override
+            public void write(Object target, Object value) throws InvocationTargetException {
+                try {
+                    generic.invokeExact(target, value);
+                } catch (Throwable e) {
+                    throw failureOf(e);
+                }
+            }
+        };
+    }
+
+    static OperationInvoker invoker(Method method) {
+        MethodHandle handle = unreflect(method);
+
+        if (handle == null)
+            return (target, args) -> reflectiveInvoke(method, target, args == null ? NO_ARGS : args);
+
+        int parameterCount = method.getParameterCount();
+        MethodHandle spreader = handle.asType(genericMethodType(parameterCount + 1)).asSpreader(Object[].class, parameterCount);
+        return new OperationInvoker() {
+            @Override
+            public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+                Object[] arguments = args == null ? NO_ARGS : args;
+
+                try {
+                    return spreader.invokeExact(target, arguments);
+                } catch (Throwable e) {
+                    throw failureOf(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Reader bound to a method handle of the getter, which also lends the handle to callers that read the attribute as a primitive.
+     */
+    static final class HandleReader implements AttributeReader {
+
+        private final MethodHandle handle;
+        private final MethodHandle generic;
+
+        private HandleReader(MethodHandle handle) {
+            this.handle = handle;
+            this.generic = handle.asType(genericMethodType(1));
+        }
+
+        @Override
+        public Object read(Object target) throws InvocationTargetException {
+            try {
+                return generic.invokeExact(target);
+            } catch (Throwable e) {
+                throw failureOf(e);
+            }
+        }
+
+        // Handle of the getter taking the target as an Object and returning the given type, widening primitives if needed
+        MethodHandle handle(Class<?> returnType) {
+            return handle.asType(methodType(returnType, Object.class));
+        }
+    }
+
+    // Returns a handle taking the target as first argument (ignored for static methods), or null if the method is not accessible
+    private static MethodHandle unreflect(Method method) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+            return isStatic(method.getModifiers()) ? MethodHandles.dropArguments(handle, 0, Object.class) : handle;
+        } catch (IllegalAccessException e) {
+            logger.debug("Method '{}' is not publicly accessible. Reflection will be used instead.", method);
+            return null;
+        }
+    }
+
+    private static InvocationTargetException failureOf(Throwable e) {
+        if (e instanceof Error)
+            throw (Error) e;
+
+        return new InvocationTargetException(e);
+    }
+
+    private static Object reflectiveInvoke(Method method, Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalArgumentException e) {
+            throw new InvocationTargetException(e);
+        } catch (InvocationTargetException e) {
+            throw failureOf(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cenerino.jmxext.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Last value read from a {@code @CachedAttribute}. Expired values are recomputed by a single caller while the others wait for it.
+ */
+class AttributeCache {
+
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Entry entry;
+
+    AttributeCache(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    Object get(ManagedAttribute attribute, Object target) throws Exception {
+        Entry current = entry;
+
+        if (current == null || current.isExpired()) {
+            synchronized (this) {
+                current = entry;
+
+                if (current == null || current.isExpired()) {
+                    misses.increment();
+                    current = new Entry(attribute.read(target), System.nanoTime() + ttlNanos);
+                    entry = current;
+                    return current.value;
+                }
+            }
+        }
+
+        hits.increment();
+        return current.value;
+    }
+
+    synchronized void invalidate() {
+        entry = null;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    private static class Entry {
+
+        private final Object value;
+        private final long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
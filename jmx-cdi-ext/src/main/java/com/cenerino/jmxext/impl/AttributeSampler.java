@@ -0,0 +1,77 @@
+package com.cenerino.jmxext.impl;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically runs a sampling task on a pool shared by all MBeans. The pool is bounded by {@value #THREADS_PROPERTY} (2 threads by
+ * default) and its threads are daemons that terminate when idle. Every run is delayed by the interval plus or minus a random jitter
+ * of up to 10%, and the first one by a random fraction of the interval, so that beans sampled at the same interval spread over it.
+ */
+final class AttributeSampler {
+
+    static final String THREADS_PROPERTY = "com.cenerino.jmxext.samplerThreads";
+    private static final ScheduledThreadPoolExecutor executor = createExecutor();
+    private final Runnable task;
+    private final long intervalMillis;
+    private volatile ScheduledFuture<?> next;
+    private volatile boolean stopped;
+
+    private AttributeSampler(Runnable task, long intervalMillis) {
+        this.task = task;
+        this.intervalMillis = intervalMillis;
+    }
+
+    private static ScheduledThreadPoolExecutor createExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Math.max(1, Integer.getInteger(THREADS_PROPERTY, 2)), runnable -> {
+            Thread thread = new Thread(runnable, "jmxext-sampler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(60, SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    static AttributeSampler start(Runnable task, long intervalMillis) {
+        AttributeSampler sampler = new AttributeSampler(task, intervalMillis);
+        sampler.schedule(ThreadLocalRandom.current().nextLong(intervalMillis));
+        return sampler;
+    }
+
+    private void schedule(long delayMillis) {
+        next = executor.schedule(this::run, delayMillis, MILLISECONDS);
+    }
+
+    private void run() {
+        if (stopped)
+            return;
+
+        try {
+            task.run();
+        } finally {
+            if (!stopped)
+                schedule(jitteredInterval());
+        }
+    }
+
+    private long jitteredInterval() {
+        long jitter = intervalMillis / 10;
+        return jitter == 0 ? intervalMillis : intervalMillis + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+    }
+
+    void stop() {
+        stopped = true;
+        ScheduledFuture<?> scheduled = next;
+
+        if (scheduled != null)
+            scheduled.cancel(false);
+    }
+}
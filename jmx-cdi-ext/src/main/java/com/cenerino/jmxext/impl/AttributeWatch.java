@@ -0,0 +1,223 @@
+package com.cenerino.jmxext.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Objects;
+
+/**
+ * Last value seen of a watched attribute. Attributes of primitive types whose reader is bound to a method handle of the getter are read
+ * through that handle, adapted to return the primitive, and compared without boxing; any other attribute is read through its reader
+ * and compared by identity first, then by (deep) equality. Values are only boxed to report a change.
+ */
+abstract class AttributeWatch {
+
+    private final ManagedAttribute attribute;
+    private boolean initialized;
+
+    private AttributeWatch(ManagedAttribute attribute) {
+        this.attribute = attribute;
+    }
+
+    static AttributeWatch of(ManagedAttribute attribute) {
+        Class<?> type = attribute.getType();
+
+        if (type == boolean.class) {
+            MethodHandle getter = attribute.handle(boolean.class);
+
+            if (getter != null)
+                return new BooleanWatch(attribute, getter);
+        } else if (type == double.class || type == float.class) {
+            MethodHandle getter = attribute.handle(double.class);
+
+            if (getter != null)
+                return new DoubleWatch(attribute, getter);
+        } else if (type.isPrimitive()) {
+            MethodHandle getter = attribute.handle(long.class);
+
+            if (getter != null)
+                return new LongWatch(attribute, getter);
+        }
+
+        return new ObjectWatch(attribute);
+    }
+
+    ManagedAttribute getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Reads the attribute and keeps its value. The first read after the watch is created or reset only takes a baseline.
+     *
+     * @return whether the value differs from the one kept before
+     */
+    boolean update(Object bean) throws Exception {
+        boolean changed = read(bean) && initialized;
+        initialized = true;
+        return changed;
+    }
+
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    void reset() {
+        initialized = false;
+    }
+
+    // Reads the current value, keeping the previous one, and tells whether they differ
+    abstract boolean read(Object bean) throws Exception;
+
+    abstract Object getPrevious();
+
+    abstract Object getCurrent();
+
+    private static class LongWatch extends AttributeWatch {
+
+        private final MethodHandle getter;
+        private long previous;
+        private long current;
+
+        LongWatch(ManagedAttribute attribute, MethodHandle getter) {
+            super(attribute);
+            this.getter = getter;
+        }
+
+        @Override
+        boolean read(Object bean) throws Exception {
+            long value;
+
+            try {
+                value = (long) getter.invokeExact(bean);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+
+            previous = current;
+            current = value;
+            return previous != current;
+        }
+
+        @Override
+        Object getPrevious() {
+            return box(previous);
+        }
+
+        @Override
+        Object getCurrent() {
+            return box(current);
+        }
+
+        private Object box(long value) {
+            Class<?> type = getAttribute().getType();
+
+            if (type == int.class) return (int) value;
+            if (type == short.class) return (short) value;
+            if (type == byte.class) return (byte) value;
+            if (type == char.class) return (char) value;
+            return value;
+        }
+    }
+
+    private static class DoubleWatch extends AttributeWatch {
+
+        private final MethodHandle getter;
+        private double previous;
+        private double current;
+
+        DoubleWatch(ManagedAttribute attribute, MethodHandle getter) {
+            super(attribute);
+            this.getter = getter;
+        }
+
+        // Compared by bits, so that NaN is equal to itself
+        @Override
+        boolean read(Object bean) throws Exception {
+            double value;
+
+            try {
+                value = (double) getter.invokeExact(bean);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+
+            previous = current;
+            current = value;
+            return Double.doubleToLongBits(previous) != Double.doubleToLongBits(current);
+        }
+
+        @Override
+        Object getPrevious() {
+            return getAttribute().getType() == float.class ? (Object) (float) previous : (Object) previous;
+        }
+
+        @Override
+        Object getCurrent() {
+            return getAttribute().getType() == float.class ? (Object) (float) current : (Object) current;
+        }
+    }
+
+    private static class BooleanWatch extends AttributeWatch {
+
+        private final MethodHandle getter;
+        private boolean previous;
+        private boolean current;
+
+        BooleanWatch(ManagedAttribute attribute, MethodHandle getter) {
+            super(attribute);
+            this.getter = getter;
+        }
+
+        @Override
+        boolean read(Object bean) throws Exception {
+            boolean value;
+
+            try {
+                value = (boolean) getter.invokeExact(bean);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+
+            previous = current;
+            current = value;
+            return previous != current;
+        }
+
+        @Override
+        Object getPrevious() {
+            return previous;
+        }
+
+        @Override
+        Object getCurrent() {
+            return current;
+        }
+    }
+
+    private static class ObjectWatch extends AttributeWatch {
+
+        private Object previous;
+        private Object current;
+
+        ObjectWatch(ManagedAttribute attribute) {
+            super(attribute);
+        }
+
+        @Override
+        boolean read(Object bean) throws Exception {
+            Object value = getAttribute().read(bean);
+            previous = current;
+            current = value;
+            return previous != current && !Objects.deepEquals(previous, current);
+        }
+
+        @Override
+        Object getPrevious() {
+            return previous;
+        }
+
+        @Override
+        Object getCurrent() {
+            return current;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.cenerino.jmxext.impl;
+
+import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCauseMessage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import javax.management.AttributeChangeNotification;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watched attributes of a registered MBean. A single task, run on the sampler pool every number of milliseconds given by the
+ * {@value #INTERVAL_PROPERTY} system property (1000 by default), goes through the watchers of all MBeans, so its cost is linear in the number of watched attributes, and it
+ * allocates nothing unless an attribute changed. MBeans without listeners are skipped, and their attributes only compared again
+ * from the next value read once someone listens.
+ */
+final class AttributeWatcher {
+
+    static final String INTERVAL_PROPERTY = "com.cenerino.jmxext.watchMillis";
+    private static final Logger logger = LoggerFactory.getLogger(AttributeWatcher.class);
+    private static final long INTERVAL_MILLIS = Math.max(1, Long.getLong(INTERVAL_PROPERTY, 1000));
+    private static volatile AttributeWatcher[] watchers = {};
+    private static AttributeSampler task;
+    private final Class<?> beanClass;
+    private final AttributeWatch[] watches;
+    private final Map<String, AttributeWatch> watchesByName = new HashMap<>();
+    private final Callable<Object> bean;
+    private final MBeanNotifications notifications;
+    private final ObjectName source;
+    private volatile boolean stale;
+
+    private AttributeWatcher(MBeanMetadata metadata, Callable<Object> bean, MBeanNotifications notifications, ObjectName source) {
+        this.beanClass = metadata.getBeanClass();
+        this.watches = metadata.getAttributes().stream()
+                .filter(ManagedAttribute::isWatched)
+                .map(AttributeWatch::of)
+                .toArray(AttributeWatch[]::new);
+        this.bean = bean;
+        this.notifications = notifications;
+        this.source = source;
+
+        for (AttributeWatch watch : watches) {
+            watchesByName.put(watch.getAttribute().getName(), watch);
+        }
+    }
+
+    /**
+     * @return the watcher of the MBean's watched attributes, or {@code null} if it has none
+     */
+    static AttributeWatcher start(MBeanMetadata metadata, Callable<Object> bean, MBeanNotifications notifications, ObjectName source) {
+        AttributeWatcher watcher = new AttributeWatcher(metadata, bean, notifications, source);
+
+        if (watcher.watches.length == 0)
+            return null;
+
+        synchronized (AttributeWatcher.class) {
+            AttributeWatcher[] current = watchers;
+            AttributeWatcher[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = watcher;
+            watchers = updated;
+
+            if (task == null)
+                task = AttributeSampler.start(AttributeWatcher::checkAll, INTERVAL_MILLIS);
+        }
+
+        return watcher;
+    }
+
+    void stop() {
+        synchronized (AttributeWatcher.class) {
+            watchers = Arrays.stream(watchers).filter(watcher -> watcher != this).toArray(AttributeWatcher[]::new);
+
+            if (watchers.length == 0 && task != null) {
+                task.stop();
+                task = null;
+            }
+        }
+    }
+
+    private static void checkAll() {
+        for (AttributeWatcher watcher : watchers) {
+            watcher.check();
+        }
+    }
+
+    private void check() {
+        if (!notifications.hasListeners()) {
+            stale = true;
+            return;
+        }
+
+        Object instance;
+
+        try {
+            instance = bean.call();
+        } catch (Exception e) {
+            logger.warn("Watched attributes of MBean '{}' could not be read. Error: {}.", beanClass.getName(), getRootCauseMessage(e));
+            return;
+        }
+
+        resetIfStale();
+
+        for (AttributeWatch watch : watches) {
+            check(watch, instance);
+        }
+    }
+
+    private void resetIfStale() {
+        if (!stale)
+            return;
+
+        stale = false;
+
+        for (AttributeWatch watch : watches) {
+            synchronized (watch) {
+                watch.reset();
+            }
+        }
+    }
+
+    // Takes the value before a write through the MBean as baseline, if there is none yet, so that the write itself gets notified
+    void writing(String attribute, Object instance) {
+        AttributeWatch watch = watchesByName.get(attribute);
+
+        if (watch == null || !notifications.hasListeners())
+            return;
+
+        resetIfStale();
+
+        try {
+            synchronized (watch) {
+                if (!watch.isInitialized())
+                    watch.update(instance);
+            }
+        } catch (Exception e) {
+            logger.warn("Watched attribute '{}' of MBean '{}' could not be read. Error: {}.", attribute, beanClass.getName(),
+                    getRootCauseMessage(e));
+        }
+    }
+
+    // A change made through the MBean is notified right away, instead of on the next check
+    void written(String attribute, Object instance) {
+        AttributeWatch watch = watchesByName.get(attribute);
+
+        if (watch == null)
+            return;
+
+        if (notifications.hasListeners())
+            check(watch, instance);
+        else
+            stale = true;
+    }
+
+    private void check(AttributeWatch watch, Object instance) {
+        ManagedAttribute attribute = watch.getAttribute();
+        AttributeChangeNotification notification = null;
+
+        try {
+            synchronized (watch) {
+                if (watch.update(instance))
+                    notification = new AttributeChangeNotification(source, notifications.nextSequenceNumber(), System.currentTimeMillis(),
+                            "Attribute '" + attribute.getName() + "' changed", attribute.getName(), attribute.getOpenTypeName(),
+                            attribute.toOpenValue(watch.getPrevious()), attribute.toOpenValue(watch.getCurrent()));
+            }
+        } catch (Exception e) {
+            logger.warn("Watched attribute '{}' of MBean '{}' could not be read. Error: {}.", attribute.getName(), beanClass.getName(),
+                    getRootCauseMessage(e));
+        }
+
+        if (notification != null)
+            notifications.sendNotification(notification);
+    }
+}
@@ -0,0 +1,125 @@
+package com.cenerino.jmxext.impl;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cenerino.jmxext.metrics.Counter;
+import com.cenerino.jmxext.metrics.Gauge;
+import com.cenerino.jmxext.metrics.Meter;
+import com.cenerino.jmxext.metrics.Metric;
+
+/**
+ * {@link Metric} fields of a bean class and the metric objects they held in the latest instance created. The objects are taken from
+ * the instance once, when it is created, so that the MBean reads them without resolving the bean nor reflecting on every read. As
+ * the objects are bound per class, they are only exposed for beans with a single instance.
+ */
+final class BeanMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(BeanMetrics.class);
+    private static final ClassValue<BeanMetrics> metrics = new ClassValue<BeanMetrics>() {
+
+        @Override
+        protected BeanMetrics computeValue(Class<?> beanClass) {
+            return new BeanMetrics(metricFields(beanClass));
+        }
+    };
+    private final Field[] fields;
+    private volatile Object[] values;
+    private volatile boolean refused;
+
+    private BeanMetrics(Field[] fields) {
+        this.fields = fields;
+    }
+
+    static BeanMetrics of(Class<?> beanClass) {
+        return metrics.get(beanClass);
+    }
+
+    private static Field[] metricFields(Class<?> beanClass) {
+        List<Field> fields = new ArrayList<>();
+
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            Stream.of(type.getDeclaredFields()).filter(field -> field.isAnnotationPresent(Metric.class)).forEach(field -> {
+                if (isMetric(field.getType())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                } else {
+                    logger.warn("Field '{}' of class '{}' is not a Counter, Gauge or Meter. It will not be exposed in the MBean.",
+                            field.getName(), beanClass.getName());
+                }
+            });
+        }
+
+        return fields.toArray(new Field[fields.size()]);
+    }
+
+    private static boolean isMetric(Class<?> type) {
+        return type == Counter.class || type == Gauge.class || type == Meter.class;
+    }
+
+    /**
+     * Refuses the metric fields of a bean that is neither {@link ApplicationScoped} nor {@link Singleton}, whose MBean would otherwise
+     * read the metrics of whichever of its instances was created last.
+     */
+    void checkScopeOf(Bean<?> bean) {
+        Class<? extends Annotation> scope = bean.getScope();
+
+        if (fields.length == 0 || scope == ApplicationScoped.class || scope == Singleton.class)
+            return;
+
+        refused = true;
+        values = null;
+        logger.warn("Bean '{}' is @{}, so it may have many instances. Its @Metric fields will not be exposed in the MBean.",
+                bean.getBeanClass().getName(), scope.getSimpleName());
+    }
+
+    int size() {
+        return refused ? 0 : fields.length;
+    }
+
+    Class<?> typeOf(int index) {
+        return fields[index].getType();
+    }
+
+    String nameOf(int index) {
+        String name = fields[index].getAnnotation(Metric.class).name();
+        return name.isEmpty() ? fields[index].getName() : name;
+    }
+
+    void bind(Object instance) {
+        if (refused)
+            return;
+
+        Object[] bound = new Object[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                bound[i] = fields[i].get(instance);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        values = bound;
+    }
+
+    /**
+     * @return the metric held by the given field, or the given default until an instance of the bean is created or if the field is null
+     */
+    @SuppressWarnings("unchecked")
+    <M> M get(int index, M unbound) {
+        Object[] bound = values;
+        Object value = bound == null ? null : bound[index];
+        return value == null ? unbound : (M) value;
+    }
+}
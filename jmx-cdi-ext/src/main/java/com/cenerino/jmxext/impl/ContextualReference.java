@@ -0,0 +1,141 @@
+package com.cenerino.jmxext.impl;
+
+import java.lang.annotation.Annotation;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Singleton;
+
+/**
+ * Resolves the contextual reference backing an MBean. The {@link Bean} is looked up only once, and so is the reference of normal-scoped
+ * and {@link Dependent} beans: for the former it is a client proxy, which always delegates to the current contextual instance; for the
+ * latter it is an instance owned by the MBean, shared by all its calls and destroyed when the MBean is unregistered. Beans of other
+ * pseudo-scopes, such as {@link Singleton}, get a fresh reference on every call, as their context decides which instance is current.
+ * Once released, the reference is closed and refuses to create another one.
+ */
+class ContextualReference {
+
+    private final BeanManager beanManager;
+    private final Class<?> beanClass;
+    private volatile Bean<?> resolvedBean;
+    private volatile Object cachedReference;
+    private CreationalContext<?> creationalContext;
+    private volatile boolean closed;
+
+    ContextualReference(Class<?> beanClass, BeanManager beanManager) {
+        this.beanClass = beanClass;
+        this.beanManager = beanManager;
+    }
+
+    // Reference to an instance whose lifecycle is managed by someone else, so it is neither looked up nor released
+    static ContextualReference of(Object instance) {
+        ContextualReference reference = new ContextualReference(instance.getClass(), null);
+        reference.cachedReference = instance;
+        return reference;
+    }
+
+    /**
+     * @return whether the reference is an instance of a {@link Dependent} bean owned by the MBean
+     */
+    boolean ownsInstance() {
+        Bean<?> bean = resolvedBean;
+        return cachedReference != null && bean != null && isDependent(bean);
+    }
+
+    Object get() {
+        Object reference = cachedReference;
+
+        if (reference != null)
+            return reference;
+
+        if (closed)
+            throw new IllegalStateException(String.format("Reference to bean '%s' was released.", beanClass.getName()));
+
+        Bean<?> bean = resolveBean();
+        return isCached(bean) ? create(bean) : beanManager.getReference(bean, beanClass, beanManager.createCreationalContext(bean));
+    }
+
+    private synchronized Object create(Bean<?> bean) {
+        if (closed)
+            throw new IllegalStateException(String.format("Reference to bean '%s' was released.", beanClass.getName()));
+
+        if (cachedReference != null)
+            return cachedReference;
+
+        CreationalContext<?> context = beanManager.createCreationalContext(bean);
+        Object reference = beanManager.getReference(bean, beanClass, context);
+
+        creationalContext = context;
+        cachedReference = reference;
+        return reference;
+    }
+
+    /**
+     * Destroys the owned instance of a {@link Dependent} bean, along with its own dependents, or releases the creational context of the
+     * client proxy of a normal-scoped bean, which owns nothing. The creational contexts of other pseudo-scopes are left alone, since
+     * the context of a {@link Singleton} owns the dependents of an instance that is still in use. Later calls fail.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    synchronized void release() {
+        Object reference = cachedReference;
+
+        if (beanManager == null)
+            return;
+
+        closed = true;
+
+        if (reference == null)
+            return;
+
+        Bean<?> bean = resolvedBean;
+
+        if (isDependent(bean)) {
+            ((Bean) bean).destroy(reference, creationalContext);
+        } else {
+            creationalContext.release();
+        }
+
+        cachedReference = null;
+        creationalContext = null;
+    }
+
+    /**
+     * @return whether the reference may be used from any thread, such as those of the sampler pool: given instances and beans that are
+     *         {@link ApplicationScoped}, {@link Singleton} or {@link Dependent}, unlike those of contexts only active on some threads
+     */
+    boolean isUsableFromAnyThread() {
+        if (beanManager == null)
+            return true;
+
+        Class<? extends Annotation> scope = resolveBean().getScope();
+        return scope == ApplicationScoped.class || scope == Singleton.class || scope == Dependent.class;
+    }
+
+    private boolean isCached(Bean<?> bean) {
+        return isDependent(bean) || beanManager.isNormalScope(bean.getScope());
+    }
+
+    private static boolean isDependent(Bean<?> bean) {
+        return bean.getScope() == Dependent.class;
+    }
+
+    private Bean<?> resolveBean() {
+        Bean<?> bean = resolvedBean;
+
+        if (bean == null) {
+            Annotation[] qualifiers = selectQualifiers(beanClass.getDeclaredAnnotations());
+            bean = beanManager.resolve(beanManager.getBeans(beanClass, qualifiers));
+            resolvedBean = bean;
+        }
+
+        return bean;
+    }
+
+    private Annotation[] selectQualifiers(Annotation[] annotations) {
+        return Stream.of(annotations).filter(annotation -> beanManager.isQualifier(annotation.annotationType())).toArray(Annotation[]::new);
+    }
+}
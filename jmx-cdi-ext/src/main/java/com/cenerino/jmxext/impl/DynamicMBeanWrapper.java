@@ -1,145 +1,258 @@
 package com.cenerino.jmxext.impl;
 
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCauseMessage;
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
-import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.management.Attribute;
 import javax.management.AttributeList;
 import javax.management.AttributeNotFoundException;
 import javax.management.DynamicMBean;
+import javax.management.ImmutableDescriptor;
 import javax.management.InvalidAttributeValueException;
 import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanException;
+import javax.management.ListenerNotFoundException;
 import javax.management.MBeanInfo;
-import javax.management.MBeanOperationInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanRegistration;
+import javax.management.MBeanServer;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
 import javax.management.ReflectionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.cenerino.jmxext.ConsistentAttributes;
 import com.cenerino.jmxext.MBean;
 
-class DynamicMBeanWrapper implements DynamicMBean {
+class DynamicMBeanWrapper implements DynamicMBean, MBeanRegistration, NotificationEmitter {
 
     private static final Logger logger = LoggerFactory.getLogger(DynamicMBeanWrapper.class);
-    private BeanManager beanManager;
-    private Class<?> beanClass;
-    private Map<String, PropertyDescriptor> exposedAttributes = new LinkedHashMap<>();
-    private List<Method> exposedMethods = new ArrayList<>();
-    private MBeanInfo mbeanInfo;
+    private final Class<?> beanClass;
+    private final ContextualReference reference;
+    private volatile MBeanMetadata metadata;
+    private volatile boolean registered;
+    private final Map<String, AttributeCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Sample> samples = new ConcurrentHashMap<>();
+    private List<AttributeSampler> samplers = emptyList();
+    private volatile AttributeWatcher watcher;
+    private final MBeanStatistics statistics = new MBeanStatistics();
+    private volatile AccessStatistics accessStatistics;
+    private final MBeanNotifications broadcaster = new MBeanNotifications();
+    private MBeanServer server;
+    private ObjectName objectName;
 
     public static DynamicMBeanWrapper wrap(Bean<?> bean, BeanManager beanManager) throws IntrospectionException {
-        return new DynamicMBeanWrapper(bean, beanManager);
+        return wrap(bean.getBeanClass(), new ContextualReference(bean.getBeanClass(), beanManager));
     }
 
-    private DynamicMBeanWrapper(Bean<?> bean, BeanManager beanManager) throws IntrospectionException {
-        this.beanClass = bean.getBeanClass();
-        this.beanManager = beanManager;
-        BeanInfo beanInfo = Introspector.getBeanInfo(beanClass, Object.class);
-        loadProperties(beanInfo);
-        loadOperations(beanInfo);
-        createMBeanInfo();
+    // Also used by the benchmarks to compare ways of resolving the bean
+    static DynamicMBeanWrapper wrap(Class<?> beanClass, ContextualReference reference) throws IntrospectionException {
+        DynamicMBeanWrapper wrapper = new DynamicMBeanWrapper(beanClass, reference);
+        wrapper.metadata = MBeanMetadata.of(beanClass);
+        return wrapper;
     }
 
-    private void loadProperties(BeanInfo beanInfo) {
-        Stream.of(beanInfo.getPropertyDescriptors())
-        .filter(prop -> isReadable(prop) || isWritable(prop))
-        .forEach(prop -> {
-            logger.debug("Attribute '{}' will be exposed in the MBean.", prop.getName());
-            exposedAttributes.put(prop.getName(), prop);
-        });
+    /**
+     * Creates a wrapper whose metadata is only built when the MBean is first accessed. Until it is registered, the wrapper describes
+     * itself with an MBeanInfo holding just the class name and description, which is all the MBeanServer needs to register it.
+     */
+    public static DynamicMBeanWrapper wrapLazily(Bean<?> bean, BeanManager beanManager) {
+        return new DynamicMBeanWrapper(bean, beanManager);
     }
 
-    private void loadOperations(BeanInfo beanInfo) {
-        Stream.of(beanInfo.getMethodDescriptors())
-        .forEach(methodDesc -> {
-            logger.debug("Method '{}' will be exposed in the MBean.", methodDesc.getName());
-            exposedMethods.add(methodDesc.getMethod());
-        });
+    /**
+     * Creates the wrapper of a single instance of an {@code @MBean} class, sharing the metadata of the class with the wrappers of its
+     * other instances. Notifications published for the class are sent by the wrappers of all its instances.
+     */
+    static DynamicMBeanWrapper wrapInstance(Object instance, Class<?> beanClass) {
+        DynamicMBeanWrapper wrapper = new DynamicMBeanWrapper(beanClass, ContextualReference.of(instance));
+        wrapper.metadata = MBeanMetadata.shared(beanClass);
+        return wrapper;
     }
 
-    private void createMBeanInfo() {
-        String description = beanClass.getAnnotation(MBean.class).description();
-        MBeanAttributeInfo[] attributes = getAttributeInfos();
-        MBeanOperationInfo[] operations = getOperationInfos();
-        mbeanInfo = new MBeanInfo(beanClass.getName(), description, attributes, null, operations, null);
+    private DynamicMBeanWrapper(Bean<?> bean, BeanManager beanManager) {
+        this(bean.getBeanClass(), new ContextualReference(bean.getBeanClass(), beanManager));
     }
 
-    private MBeanOperationInfo[] getOperationInfos() {
-        return exposedMethods.stream()
-                .map(method -> new MBeanOperationInfo(method.getName(), method))
-                .toArray(MBeanOperationInfo[]::new);
+    private DynamicMBeanWrapper(Class<?> beanClass, ContextualReference reference) {
+        this.beanClass = beanClass;
+        this.reference = reference;
     }
 
-    private MBeanAttributeInfo[] getAttributeInfos() {
-        return exposedAttributes.values().stream()
-                .map(p -> new MBeanAttributeInfo(p.getName(), p.getPropertyType().getName(), null, isReadable(p), isWritable(p), isIs(p)))
-                .toArray(MBeanAttributeInfo[]::new);
-    }
+    private MBeanMetadata metadata() {
+        MBeanMetadata result = metadata;
 
-    private static boolean isWritable(PropertyDescriptor property) {
-        return property.getWriteMethod() != null;
-    }
+        if (result == null) {
+            synchronized (this) {
+                result = metadata;
+
+                if (result == null) {
+                    logger.debug("Building deferred metadata of MBean '{}'.", beanClass.getName());
+                    metadata = result = introspect();
+
+                    if (registered)
+                        startSampling(result);
+                }
+            }
+        }
 
-    private static boolean isReadable(PropertyDescriptor property) {
-        return property.getReadMethod() != null;
+        return result;
     }
 
-    private static boolean isIs(PropertyDescriptor property) {
-        return isReadable(property) && property.getReadMethod().getName().startsWith("is");
+    private MBeanMetadata introspect() {
+        try {
+            return MBeanMetadata.of(beanClass);
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException(String.format("Class '%s' could not be introspected.", beanClass.getName()), e);
+        }
     }
 
     @Override
     public Object getAttribute(String attribute) throws AttributeNotFoundException, MBeanException, ReflectionException {
         validateAttributeExistsAndIsReadable(attribute);
 
+        Object instance = readsBean(attribute) ? instance() : null;
+
         try {
-            return exposedAttributes.get(attribute).getReadMethod().invoke(instance());
-        } catch (IllegalAccessException | InvocationTargetException e) {
+            return recordedRead(metadata().getAttribute(attribute), instance);
+        } catch (Exception e) {
             throw new ReflectionException(e, "Attribute '" + attribute + "' could not be read.");
         }
     }
 
     @Override
     public AttributeList getAttributes(String[] attributes) {
-        AttributeList result = new AttributeList();
+        MBeanMetadata metadata = metadata();
+        AttributeList result = new AttributeList(attributes.length);
+        Object instance = readsBean(attributes) ? instance() : null;
+
+        if (instance instanceof ConsistentAttributes) {
+            ((ConsistentAttributes) instance).readSnapshot(() -> readAttributes(metadata, instance, attributes, result));
+        } else {
+            readAttributes(metadata, instance, attributes, result);
+        }
 
+        return result;
+    }
+
+    private void readAttributes(MBeanMetadata metadata, Object instance, String[] attributes, AttributeList result) {
         for (String attribute : attributes) {
+            ManagedAttribute property = attribute == null ? null : metadata.getAttribute(attribute);
+
+            if (property == null || !property.isReadable()) {
+                logger.debug("Attribute '{}' does not exist or is not readable. It will not be added to the resulting list.", attribute);
+                continue;
+            }
+
             try {
-                result.add(new Attribute(attribute, getAttribute(attribute)));
+                result.add(new Attribute(attribute, recordedRead(property, instance)));
             } catch (Exception e) {
-                logger.error("Error to read attribute. It will not be added to the resulting list.", e);
+                logger.warn("Error to read attribute '{}'. It will not be added to the resulting list. Error: {}.", attribute, getRootCauseMessage(e));
             }
         }
+    }
 
-        return result;
+    // A loop rather than a stream, as it runs on every call
+    private boolean readsBean(String[] attributes) {
+        for (String attribute : attributes) {
+            if (readsBean(attribute))
+                return true;
+        }
+
+        return false;
+    }
+
+    // Sampled attributes are served from their last sample and detached ones without the bean, so neither needs it resolved
+    private boolean readsBean(String attribute) {
+        ManagedAttribute property = attribute == null ? null : metadata().getAttribute(attribute);
+        return property != null && !property.isDetached() && !samples.containsKey(attribute);
+    }
+
+    private Object recordedRead(ManagedAttribute property, Object instance) throws Exception {
+        if (!isRecording())
+            return readValue(property, instance);
+
+        return statistics.read(property.getName()).time(() -> readValue(property, instance));
+    }
+
+    // Serves detached attributes without the bean and sampled ones from their last sample, if any. Otherwise reads the bean, resolving
+    // it if it was not, as it looked like no attribute would need it
+    private Object readValue(ManagedAttribute property, Object instance) throws Exception {
+        if (property.isDetached())
+            return property.read(null);
+
+        Sample sample = samples.get(property.getName());
+
+        if (sample != null)
+            return property.toOpenValue(sample.value);
+
+        return property.toOpenValue(read(property, instance != null ? instance : instance()));
+    }
+
+    private Object read(ManagedAttribute property, Object instance) throws Exception {
+        return property.isCached() ? cache(property).get(property, instance) : property.read(instance);
+    }
+
+    private void recordedWrite(ManagedAttribute property, Object instance, Object value) throws Exception {
+        if (!isRecording()) {
+            write(property, instance, value);
+            return;
+        }
+
+        statistics.write(property.getName()).time(() -> {
+            write(property, instance, value);
+            return null;
+        });
+    }
+
+    private void write(ManagedAttribute property, Object instance, Object value) throws Exception {
+        AttributeWatcher current = property.isWatched() ? watcher : null;
+
+        if (current != null)
+            current.writing(property.getName(), instance);
+
+        property.write(instance, property.fromOpenValue(value));
+
+        if (property.isCached())
+            cache(property).invalidate();
+
+        // The bean is read directly until the next sample, so that the new value is seen right away
+        if (property.isSampled())
+            samples.remove(property.getName());
+
+        if (current != null)
+            current.written(property.getName(), instance);
+    }
+
+    private AttributeCache cache(ManagedAttribute property) {
+        return caches.computeIfAbsent(property.getName(), name -> new AttributeCache(property.getCacheTtlMillis()));
     }
 
     private void validateAttributeExistsAndIsReadable(String attribute) throws AttributeNotFoundException {
         if (isBlank(attribute))
             throw new IllegalArgumentException("Attribute name cannot be null.");
 
-        PropertyDescriptor property = exposedAttributes.get(attribute);
+        ManagedAttribute property = metadata().getAttribute(attribute);
 
-        if (property == null || !isReadable(property))
+        if (property == null || !property.isReadable())
             throw new AttributeNotFoundException("Attribute '" + attribute + "' does not exist or is not readable.");
     }
 
@@ -147,74 +260,278 @@ class DynamicMBeanWrapper implements DynamicMBean {
     public void setAttribute(Attribute attribute) throws AttributeNotFoundException, InvalidAttributeValueException, MBeanException, ReflectionException {
         validateAttributeExistsAndIsWritable(attribute.getName());
 
+        Object instance = instance();
+
         try {
-            exposedAttributes.get(attribute.getName()).getWriteMethod().invoke(instance(), attribute.getValue());
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new InvalidAttributeValueException(String.format("Cannot set attribute '%s'. Error: %s.", attribute, e.getMessage()));
+            recordedWrite(metadata().getAttribute(attribute.getName()), instance, attribute.getValue());
+        } catch (Exception e) {
+            throw new InvalidAttributeValueException(String.format("Cannot set attribute '%s'. Error: %s.", attribute, getRootCauseMessage(e)));
         }
     }
 
     @Override
     public AttributeList setAttributes(AttributeList attributes) {
-        AttributeList result = new AttributeList();
+        MBeanMetadata metadata = metadata();
+        boolean atomic = beanClass.getAnnotation(MBean.class).atomicSetAttributes();
+        List<Attribute> valid = new ArrayList<>(attributes.size());
 
         for (Attribute attribute : attributes.asList()) {
+            String error = validateWrite(metadata, attribute, atomic);
+
+            if (error == null) {
+                valid.add(attribute);
+            } else if (atomic) {
+                logger.error("Invalid attribute '{}': {}. No attribute of the batch will be set.", attribute.getName(), error);
+                return new AttributeList();
+            } else {
+                logger.error("Invalid attribute '{}': {}. It will not be added to the resulting list.", attribute.getName(), error);
+            }
+        }
+
+        Object instance = instance();
+        return atomic ? writeAllOrNothing(metadata, instance, valid) : writeEach(metadata, instance, valid);
+    }
+
+    private String validateWrite(MBeanMetadata metadata, Attribute attribute, boolean atomic) {
+        ManagedAttribute property = isBlank(attribute.getName()) ? null : metadata.getAttribute(attribute.getName());
+
+        if (property == null || !property.isWritable())
+            return "it does not exist or is not writable";
+
+        if (atomic && !property.isReadable())
+            return "it is not readable, so it cannot be restored";
+
+        Object value = attribute.getValue();
+
+        if (!property.accepts(value))
+            return String.format("value '%s' is not of type '%s'", value, property.getOpenTypeName());
+
+        return null;
+    }
+
+    private AttributeList writeEach(MBeanMetadata metadata, Object instance, List<Attribute> attributes) {
+        AttributeList result = new AttributeList(attributes.size());
+
+        for (Attribute attribute : attributes) {
             try {
-                setAttribute(attribute);
+                recordedWrite(metadata.getAttribute(attribute.getName()), instance, attribute.getValue());
                 result.add(attribute);
             } catch (Exception e) {
-                logger.error("Error to set attribute value. It will not be added to the resulting list.", e);
+                logger.error("Error to set attribute '{}'. It will not be added to the resulting list. Error: {}.", attribute.getName(), getRootCauseMessage(e));
             }
         }
 
         return result;
     }
 
+    private AttributeList writeAllOrNothing(MBeanMetadata metadata, Object instance, List<Attribute> attributes) {
+        Deque<Attribute> previousValues = new ArrayDeque<>(attributes.size());
+
+        for (Attribute attribute : attributes) {
+            ManagedAttribute property = metadata.getAttribute(attribute.getName());
+
+            try {
+                Object previous = property.read(instance);
+                recordedWrite(property, instance, attribute.getValue());
+                previousValues.push(new Attribute(attribute.getName(), previous));
+            } catch (Exception e) {
+                logger.error("Error to set attribute '{}'. Attributes already set will be restored. Error: {}.", attribute.getName(), getRootCauseMessage(e));
+                restore(metadata, instance, previousValues);
+                return new AttributeList();
+            }
+        }
+
+        return new AttributeList(attributes);
+    }
+
+    // Restores in reverse order of writing
+    private void restore(MBeanMetadata metadata, Object instance, Deque<Attribute> previousValues) {
+        for (Attribute previous : previousValues) {
+            try {
+                write(metadata.getAttribute(previous.getName()), instance, previous.getValue());
+            } catch (Exception e) {
+                logger.error("Attribute '{}' could not be restored. Error: {}.", previous.getName(), getRootCauseMessage(e));
+            }
+        }
+    }
+
     private void validateAttributeExistsAndIsWritable(String attribute) throws AttributeNotFoundException {
         if (isBlank(attribute))
             throw new IllegalArgumentException("Attribute name cannot be null.");
 
-        PropertyDescriptor property = exposedAttributes.get(attribute);
+        ManagedAttribute property = metadata().getAttribute(attribute);
 
-        if (property == null || !isWritable(property))
+        if (property == null || !property.isWritable())
             throw new AttributeNotFoundException("Attribute '" + attribute + "' does not exist or is not writable.");
     }
 
     @Override
     public Object invoke(String methodName, Object[] args, String[] signature) throws MBeanException, ReflectionException {
-        Optional<Method> method = exposedMethods.stream().filter(m -> methodMatches(m, methodName, signature)).findFirst();
+        ManagedOperation operation = metadata().findOperation(methodName, signature);
 
-        if (!method.isPresent())
+        if (operation == null)
             throw new IllegalArgumentException(String.format("Method '%s' with arg types %s not found.", methodName, Arrays.toString(signature)));
 
         try {
-            return method.get().invoke(instance(), args);
+            if (!isRecording())
+                return operation.invoke(instance(), args);
+
+            return statistics.invocation(operation).time(() -> operation.invoke(instance(), args));
         } catch (Exception e) {
             throw new MBeanException(e);
         }
     }
 
-    private boolean methodMatches(Method method, String name, String[] parameterTypes) {
-        if (!method.getName().equals(name)) return false;
+    private Object instance() {
+        return reference.get();
+    }
 
-        String[] signature = Stream.of(method.getParameterTypes()).map(Class::getName).toArray(String[]::new);
-        return Arrays.equals(signature, parameterTypes);
+    // Only MBeans registered with a server record statistics, in those of that server
+    private boolean isRecording() {
+        AccessStatistics recorder = accessStatistics;
+        return recorder != null && recorder.isEnabled();
     }
 
-    private Object instance() {
-        Annotation[] qualifiers = selectQualifiers(beanClass.getDeclaredAnnotations());
-        Set<Bean<?>> beans = beanManager.getBeans(beanClass, qualifiers);
-        Bean<?> resolved = beanManager.resolve(beans);
-        CreationalContext<?> context = beanManager.createCreationalContext(resolved);
-        return beanManager.getReference(resolved, beanClass, context);
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        if (metadata == null && !registered)
+            return new MBeanInfo(beanClass.getName(), beanClass.getAnnotation(MBean.class).description(), null, null, null, null);
+
+        MBeanMetadata metadata = metadata();
+        return metadata.hasCachedAttributes() ? withCacheStatistics(metadata) : metadata.getMBeanInfo();
     }
 
-    private Annotation[] selectQualifiers(Annotation[] annotations) {
-        return Stream.of(annotations).filter(annotation -> beanManager.isQualifier(annotation.annotationType())).toArray(Annotation[]::new);
+    // Hit and miss counts change on every read, so they are added to a copy of the static MBeanInfo
+    private MBeanInfo withCacheStatistics(MBeanMetadata metadata) {
+        MBeanInfo info = metadata.getMBeanInfo();
+        MBeanAttributeInfo[] attributes = Stream.of(info.getAttributes()).map(attribute -> {
+            ManagedAttribute property = metadata.getAttribute(attribute.getName());
+
+            if (!property.isCached())
+                return attribute;
+
+            AttributeCache cache = cache(property);
+            return property.toAttributeInfo(new ImmutableDescriptor(new String[] { "cacheHits", "cacheMisses" }, new Object[] {
+                    cache.getHits(), cache.getMisses() }));
+        }).toArray(MBeanAttributeInfo[]::new);
+
+        return new MBeanInfo(info.getClassName(), info.getDescription(), attributes, info.getConstructors(), info.getOperations(),
+                info.getNotifications(), info.getDescriptor());
     }
 
     @Override
-    public MBeanInfo getMBeanInfo() {
-        return mbeanInfo;
+    public ObjectName preRegister(MBeanServer server, ObjectName name) {
+        this.server = server;
+        this.objectName = name;
+        return name;
+    }
+
+    @Override
+    public void postRegister(Boolean registrationDone) {
+        registered = Boolean.TRUE.equals(registrationDone);
+        MBeanMetadata result = metadata;
+
+        // With deferred metadata, sampling starts once it is built
+        if (registered && result != null)
+            startSampling(result);
+
+        if (registered && server != null) {
+            accessStatistics = AccessStatistics.register(server, objectName, statistics, reference);
+            Registry.register(server, objectName, this);
+            NotificationChannel.of(beanClass).attach(broadcaster, objectName);
+            NotificationChannel.forEvents(beanClass).attach(broadcaster, objectName);
+        }
+    }
+
+    @Override
+    public void preDeregister() {
+    }
+
+    @Override
+    public void postDeregister() {
+        registered = false;
+        stopSampling();
+        NotificationChannel.of(beanClass).detach(broadcaster);
+        NotificationChannel.forEvents(beanClass).detach(broadcaster);
+
+        if (server != null) {
+            accessStatistics = null;
+            AccessStatistics.unregister(server, objectName);
+            Registry.unregister(server, objectName);
+        }
+
+        reference.release();
+    }
+
+    @Override
+    public void addNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+        broadcaster.addNotificationListener(listener, filter, handback);
+    }
+
+    @Override
+    public void removeNotificationListener(NotificationListener listener) throws ListenerNotFoundException {
+        broadcaster.removeNotificationListener(listener);
+    }
+
+    @Override
+    public void removeNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback)
+            throws ListenerNotFoundException {
+        broadcaster.removeNotificationListener(listener, filter, handback);
+    }
+
+    @Override
+    public MBeanNotificationInfo[] getNotificationInfo() {
+        return getMBeanInfo().getNotifications();
+    }
+
+    private synchronized void startSampling(MBeanMetadata metadata) {
+        if (!samplers.isEmpty() || watcher != null)
+            return;
+
+        // Request or session scoped beans are only reachable from the threads serving them, not from the sampler pool
+        boolean background = metadata.getAttributes().stream().anyMatch(property -> property.isSampled() || property.isWatched());
+
+        if (background && !reference.isUsableFromAnyThread()) {
+            logger.warn("MBean '{}' is not application scoped, singleton nor dependent. Its sampled attributes will be read on every call "
+                    + "and its watched attributes will not be notified.", beanClass.getName());
+            return;
+        }
+
+        samplers = metadata.getAttributes().stream()
+                .filter(ManagedAttribute::isSampled)
+                .map(property -> AttributeSampler.start(() -> sample(property), property.getSamplingIntervalMillis()))
+                .collect(toList());
+
+        if (objectName != null)
+            watcher = AttributeWatcher.start(metadata, this::instance, broadcaster, objectName);
+    }
+
+    private synchronized void stopSampling() {
+        samplers.forEach(AttributeSampler::stop);
+        samplers = emptyList();
+
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+
+        samples.clear();
+    }
+
+    private void sample(ManagedAttribute property) {
+        try {
+            samples.put(property.getName(), new Sample(property.read(instance())));
+        } catch (Exception e) {
+            logger.warn("Attribute '{}' of MBean '{}' could not be sampled. Error: {}.", property.getName(), beanClass.getName(), getRootCauseMessage(e));
+        }
+    }
+
+    private static class Sample {
+
+        private final Object value;
+
+        Sample(Object value) {
+            this.value = value;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.cenerino.jmxext.impl;
+
+import static java.util.Collections.emptySet;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+import javax.enterprise.event.Reception;
+import javax.enterprise.event.TransactionPhase;
+import javax.enterprise.inject.spi.ObserverMethod;
+
+import com.cenerino.jmxext.ForwardEvents;
+
+/**
+ * Observer of the events of one type listed in {@link ForwardEvents}, which queues them as notifications of the MBean of the bean
+ * class. Without qualifiers, it observes events of that type fired with any qualifiers. The message of the notification is the
+ * event's {@code toString()}, built when the notification is sent rather than on the thread firing the event.
+ */
+class EventForwarder implements ObserverMethod<Object> {
+
+    private final Class<?> beanClass;
+    private final Class<?> eventType;
+    private final NotificationChannel channel;
+
+    EventForwarder(Class<?> beanClass, Class<?> eventType) {
+        this.beanClass = beanClass;
+        this.eventType = eventType;
+        this.channel = NotificationChannel.forEvents(beanClass);
+    }
+
+    @Override
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    @Override
+    public Type getObservedType() {
+        return eventType;
+    }
+
+    @Override
+    public Set<Annotation> getObservedQualifiers() {
+        return emptySet();
+    }
+
+    @Override
+    public Reception getReception() {
+        return Reception.ALWAYS;
+    }
+
+    @Override
+    public TransactionPhase getTransactionPhase() {
+        return TransactionPhase.IN_PROGRESS;
+    }
+
+    @Override
+    public void notify(Object event) {
+        if (channel.isListened())
+            channel.forward(eventType.getName(), event);
+    }
+}
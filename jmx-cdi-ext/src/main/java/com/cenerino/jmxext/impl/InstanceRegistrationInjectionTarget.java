@@ -0,0 +1,54 @@
+package com.cenerino.jmxext.impl;
+
+import java.util.Set;
+
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.enterprise.inject.spi.InjectionTarget;
+
+/**
+ * Registers the MBean of every instance of a per-instance {@code @MBean} bean once it is constructed, and unregisters it before the
+ * instance is destroyed.
+ */
+class InstanceRegistrationInjectionTarget<T> implements InjectionTarget<T> {
+
+    private final InjectionTarget<T> delegate;
+    private final InstanceRegistry registry;
+
+    InstanceRegistrationInjectionTarget(InjectionTarget<T> delegate, InstanceRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    @Override
+    public T produce(CreationalContext<T> context) {
+        return delegate.produce(context);
+    }
+
+    @Override
+    public void inject(T instance, CreationalContext<T> context) {
+        delegate.inject(instance, context);
+    }
+
+    @Override
+    public void postConstruct(T instance) {
+        delegate.postConstruct(instance);
+        registry.register(instance);
+    }
+
+    @Override
+    public void preDestroy(T instance) {
+        registry.unregister(instance);
+        delegate.preDestroy(instance);
+    }
+
+    @Override
+    public void dispose(T instance) {
+        delegate.dispose(instance);
+    }
+
+    @Override
+    public Set<InjectionPoint> getInjectionPoints() {
+        return delegate.getInjectionPoints();
+    }
+}
@@ -0,0 +1,272 @@
+package com.cenerino.jmxext.impl;
+
+import static java.util.Collections.emptyMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.inject.Vetoed;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cenerino.jmxext.MBean;
+import com.cenerino.jmxext.MBeanInstances;
+import com.cenerino.jmxext.ObjectNameKey;
+import com.cenerino.jmxext.spi.AttributeReader;
+
+/**
+ * MBeans of individual instances of {@code @MBean} classes, keyed by instance identity. The number of registered instances is
+ * bounded, so that a leak of instances that are never destroyed cannot fill the MBeanServer. The {@link ObjectNameKey} getters of
+ * every class are looked up once.
+ */
+@Vetoed
+final class InstanceRegistry implements MBeanInstances {
+
+    static final String MAX_INSTANCES_PROPERTY = "com.cenerino.jmxext.maxInstances";
+    private static final Logger logger = LoggerFactory.getLogger(InstanceRegistry.class);
+    private static volatile InstanceRegistry instance;
+    private static final ClassValue<Keys> keys = new ClassValue<Keys>() {
+
+        @Override
+        protected Keys computeValue(Class<?> beanClass) {
+            return new Keys(beanClass);
+        }
+    };
+    private final MBeanServer server;
+    private final int maxInstances;
+    private final Map<Identity, Registration> registered = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    InstanceRegistry(MBeanServer server, int maxInstances) {
+        this.server = server;
+        this.maxInstances = maxInstances;
+    }
+
+    // Created on first use, as most applications have no per-instance MBeans
+    static InstanceRegistry getInstance() {
+        InstanceRegistry registry = instance;
+
+        if (registry == null) {
+            synchronized (InstanceRegistry.class) {
+                registry = instance;
+
+                if (registry == null) {
+                    registry = new InstanceRegistry(ManagementFactory.getPlatformMBeanServer(),
+                            Integer.getInteger(MAX_INSTANCES_PROPERTY, 100_000));
+                    instance = registry;
+                }
+            }
+        }
+
+        return registry;
+    }
+
+    /**
+     * Unregisters the MBeans of all instances, if any was ever registered.
+     */
+    static void shutdown() {
+        InstanceRegistry registry = instance;
+
+        if (registry != null)
+            registry.unregisterAll();
+    }
+
+    /**
+     * @return the {@code @MBean} class of the instance, skipping subclasses generated by the container, or {@code null} if it has none
+     */
+    private static Class<?> mBeanClassOf(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            if (current.getDeclaredAnnotation(MBean.class) != null)
+                return current;
+        }
+
+        return null;
+    }
+
+    @Override
+    public ObjectName register(Object instance) {
+        Class<?> beanClass = beanClassOf(instance);
+        Map<String, String> keyProperties;
+
+        try {
+            keyProperties = keys.get(beanClass).of(instance);
+        } catch (Exception e) {
+            logger.warn(String.format("Instance of class '%s' could not be registered as an MBean.", beanClass.getName()), e);
+            return null;
+        }
+
+        return register(instance, beanClass, keyProperties);
+    }
+
+    @Override
+    public ObjectName register(Object instance, Map<String, String> keyProperties) {
+        return register(instance, beanClassOf(instance), keyProperties);
+    }
+
+    private static Class<?> beanClassOf(Object instance) {
+        Class<?> beanClass = mBeanClassOf(instance.getClass());
+
+        if (beanClass == null)
+            throw new IllegalArgumentException(String.format("Class '%s' is not annotated with @MBean.", instance.getClass().getName()));
+
+        return beanClass;
+    }
+
+    // The identity is reserved before its MBean is registered, under the reservation's lock, so that concurrent registrations and
+    // unregistrations of the same instance wait for the outcome instead of registering a second MBean or missing the first one
+    private ObjectName register(Object instance, Class<?> beanClass, Map<String, String> keyProperties) {
+        Identity identity = new Identity(instance);
+        Registration reservation = new Registration();
+
+        synchronized (reservation) {
+            Registration existing = registered.putIfAbsent(identity, reservation);
+
+            if (existing != null) {
+                synchronized (existing) {
+                    return existing.name;
+                }
+            }
+
+            if (size.incrementAndGet() > maxInstances) {
+                size.decrementAndGet();
+                registered.remove(identity, reservation);
+                logger.warn("Instance of class '{}' was not registered, as {} instances already are.", beanClass.getName(), maxInstances);
+                return null;
+            }
+
+            try {
+                ObjectName name = objectName(beanClass, keyProperties.isEmpty() ? keys.get(beanClass).sequential() : keyProperties);
+                server.registerMBean(DynamicMBeanWrapper.wrapInstance(instance, beanClass), name);
+                reservation.name = name;
+                logger.debug("MBean '{}' registered successfully.", name);
+                return name;
+            } catch (Exception e) {
+                size.decrementAndGet();
+                registered.remove(identity, reservation);
+                logger.warn(String.format("Instance of class '%s' could not be registered as an MBean.", beanClass.getName()), e);
+                return null;
+            }
+        }
+    }
+
+    private static ObjectName objectName(Class<?> beanClass, Map<String, String> keyProperties) throws MalformedObjectNameException {
+        StringBuilder name = new StringBuilder(String.format("%s:type=%s", beanClass.getPackage().getName(), beanClass.getSimpleName()));
+        keyProperties.forEach((key, value) -> name.append(',').append(key).append('=').append(quoteIfNeeded(value)));
+        return new ObjectName(name.toString());
+    }
+
+    private static String quoteIfNeeded(String value) {
+        return value.isEmpty() || value.matches(".*[,=:\"*?\\s].*") ? ObjectName.quote(value) : value;
+    }
+
+    @Override
+    public boolean unregister(Object instance) {
+        Registration registration = registered.remove(new Identity(instance));
+
+        if (registration == null)
+            return false;
+
+        synchronized (registration) {
+            // Its registration failed, and the reservation was about to be removed
+            if (registration.name == null)
+                return false;
+
+            size.decrementAndGet();
+
+            try {
+                server.unregisterMBean(registration.name);
+                logger.debug("MBean '{}' unregistered successfully.", registration.name);
+            } catch (Exception e) {
+                logger.warn(String.format("Error to unregister MBean '%s'.", registration.name), e);
+            }
+        }
+
+        return true;
+    }
+
+    void unregisterAll() {
+        registered.keySet().forEach(identity -> unregister(identity.instance));
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    // Key properties given by the class' ObjectNameKey getters, or a sequential id if it has none
+    private static class Keys {
+
+        private final String[] names;
+        private final AttributeReader[] readers;
+        private final AtomicLong sequence = new AtomicLong();
+
+        // Ordered by key, as the order of reflected methods is not specified
+        Keys(Class<?> beanClass) {
+            Map<String, AttributeReader> getters = new TreeMap<>();
+
+            for (Method method : beanClass.getMethods()) {
+                ObjectNameKey key = method.getAnnotation(ObjectNameKey.class);
+
+                if (key != null && method.getParameterCount() == 0)
+                    getters.put(key.value(), Accessors.reader(method));
+            }
+
+            this.names = getters.keySet().toArray(new String[getters.size()]);
+            this.readers = getters.values().toArray(new AttributeReader[getters.size()]);
+        }
+
+        Map<String, String> of(Object instance) throws Exception {
+            if (names.length == 0)
+                return emptyMap();
+
+            Map<String, String> properties = new LinkedHashMap<>();
+
+            for (int i = 0; i < names.length; i++) {
+                properties.put(names[i], String.valueOf(readers[i].read(instance)));
+            }
+
+            return properties;
+        }
+
+        Map<String, String> sequential() {
+            Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("id", String.valueOf(sequence.incrementAndGet()));
+            return properties;
+        }
+    }
+
+    // Name of an instance's MBean, null until it is registered
+    private static class Registration {
+
+        private ObjectName name;
+    }
+
+    // Instances are registered by identity, as beans may override equals
+    private static class Identity {
+
+        private final Object instance;
+
+        Identity(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Identity && ((Identity) other).instance == instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance);
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package com.cenerino.jmxext.impl;
 
+import static java.util.stream.Collectors.toList;
+
 import java.lang.management.ManagementFactory;
-import java.util.HashMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
+import javax.enterprise.inject.spi.AfterTypeDiscovery;
+import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.BeforeBeanDiscovery;
 import javax.enterprise.inject.spi.BeforeShutdown;
 import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+import javax.enterprise.inject.spi.ProcessInjectionTarget;
 import javax.enterprise.inject.spi.ProcessManagedBean;
+import javax.enterprise.inject.spi.ProcessSyntheticAnnotatedType;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanRegistrationException;
 import javax.management.MBeanServer;
@@ -19,21 +38,77 @@ import javax.management.ObjectName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.cenerino.jmxext.ForwardEvents;
 import com.cenerino.jmxext.MBean;
 
 public class JmxExtension implements Extension {
 
+    static final String LAZY_INTROSPECTION_PROPERTY = "com.cenerino.jmxext.lazyIntrospection";
     private static final Logger logger = LoggerFactory.getLogger(JmxExtension.class);
-    private Map<String, DynamicMBeanWrapper> mBeansRegistry = new HashMap<>();
+    private Queue<Bean<?>> discoveredBeans = new ConcurrentLinkedQueue<>();
+    private Queue<Bean<?>> perInstanceBeans = new ConcurrentLinkedQueue<>();
+    private Map<String, DynamicMBeanWrapper> mBeansRegistry = new ConcurrentHashMap<>();
     private MBeanServer mBeanServer;
+    private boolean lazyIntrospection;
 
-    void init(@Observes BeforeBeanDiscovery event) {
+    void init(@Observes BeforeBeanDiscovery event, BeanManager beanManager) {
         mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        lazyIntrospection = Boolean.getBoolean(LAZY_INTROSPECTION_PROPERTY);
+        event.addAnnotatedType(beanManager.createAnnotatedType(TimedInterceptor.class), TimedInterceptor.class.getName());
+        event.addAnnotatedType(beanManager.createAnnotatedType(NotificationPublisherProducer.class),
+                NotificationPublisherProducer.class.getName());
+        event.addAnnotatedType(beanManager.createAnnotatedType(MBeanInstancesProducer.class), MBeanInstancesProducer.class.getName());
+    }
+
+    // The interceptor and the producers are added by the extension. Copies discovered in a bean archive would make every @Timed call
+    // be recorded twice and the NotificationPublisher and MBeanInstances ambiguous.
+    void vetoDiscoveredTimedInterceptor(@Observes ProcessAnnotatedType<TimedInterceptor> event) {
+        vetoIfDiscovered(event);
+    }
+
+    void vetoDiscoveredPublisherProducer(@Observes ProcessAnnotatedType<NotificationPublisherProducer> event) {
+        vetoIfDiscovered(event);
+    }
+
+    void vetoDiscoveredInstancesProducer(@Observes ProcessAnnotatedType<MBeanInstancesProducer> event) {
+        vetoIfDiscovered(event);
     }
 
-    void processBean(@Observes ProcessManagedBean<?> event, final BeanManager beanManager) throws Exception {
-        if (isDecoratedWithMBeanAnnotation(event)) {
-            registerMBean(event, beanManager);
+    private static void vetoIfDiscovered(ProcessAnnotatedType<?> event) {
+        if (!(event instanceof ProcessSyntheticAnnotatedType))
+            event.veto();
+    }
+
+    void enableTimedInterceptor(@Observes AfterTypeDiscovery event) {
+        event.getInterceptors().add(TimedInterceptor.class);
+    }
+
+    <T> void bindMetrics(@Observes ProcessInjectionTarget<T> event) {
+        if (!event.getAnnotatedType().isAnnotationPresent(MBean.class))
+            return;
+
+        BeanMetrics metrics = BeanMetrics.of(event.getAnnotatedType().getJavaClass());
+
+        if (metrics.size() > 0)
+            event.setInjectionTarget(new MetricsInjectionTarget<>(event.getInjectionTarget(), metrics));
+    }
+
+    <T> void registerInstances(@Observes ProcessInjectionTarget<T> event) {
+        MBean mBean = event.getAnnotatedType().getAnnotation(MBean.class);
+
+        if (mBean != null && mBean.perInstance())
+            event.setInjectionTarget(new InstanceRegistrationInjectionTarget<>(event.getInjectionTarget(), InstanceRegistry.getInstance()));
+    }
+
+    void processBean(@Observes ProcessManagedBean<?> event) {
+        if (isPerInstance(event)) {
+            logger.debug("Instances of class '{}' will be registered as they are created.", event.getBean().getBeanClass().getName());
+            BeanMetrics.of(event.getBean().getBeanClass()).checkScopeOf(event.getBean());
+            perInstanceBeans.add(event.getBean());
+        } else if (isDecoratedWithMBeanAnnotation(event)) {
+            logger.debug("Identified class '{}' with annotation '{}.", event.getBean().getBeanClass().getName(), MBean.class.getName());
+            BeanMetrics.of(event.getBean().getBeanClass()).checkScopeOf(event.getBean());
+            discoveredBeans.add(event.getBean());
         }
     }
 
@@ -41,14 +116,59 @@ public class JmxExtension implements Extension {
         return event.getAnnotated().isAnnotationPresent(MBean.class);
     }
 
-    private void registerMBean(ProcessManagedBean<?> event, final BeanManager beanManager) {
-        Class<?> beanClass = event.getBean().getBeanClass();
-        logger.debug("Identified class '{}' with annotation '{}.", beanClass.getName(), MBean.class.getName());
-        String mBeanName = getObjectNameFor(beanClass);
+    private static boolean isPerInstance(ProcessManagedBean<?> event) {
+        MBean mBean = event.getBean().getBeanClass().getAnnotation(MBean.class);
+        return mBean != null && mBean.perInstance();
+    }
+
+    // Events are forwarded by the MBean of the class or, for perInstance classes, by the MBeans of all its instances
+    void forwardEvents(@Observes AfterBeanDiscovery event) {
+        List<Bean<?>> beans = new ArrayList<>(discoveredBeans);
+        beans.addAll(perInstanceBeans);
+        perInstanceBeans.clear();
+
+        for (Bean<?> bean : beans) {
+            ForwardEvents forwardEvents = bean.getBeanClass().getAnnotation(ForwardEvents.class);
+
+            if (forwardEvents == null)
+                continue;
 
+            for (Class<?> eventType : forwardEvents.value()) {
+                logger.debug("Events of type '{}' will be forwarded by MBean '{}'.", eventType.getName(), bean.getBeanClass().getName());
+                event.addObserverMethod(new EventForwarder(bean.getBeanClass(), eventType));
+            }
+        }
+    }
+
+    void registerMBeans(@Observes AfterDeploymentValidation event, final BeanManager beanManager) {
+        List<Bean<?>> beans = new ArrayList<>(discoveredBeans);
+        discoveredBeans.clear();
+        logger.debug("Introspecting {} MBean classes...", beans.size());
+        List<SimpleImmutableEntry<String, DynamicMBeanWrapper>> wrappers = inParallel(() -> beans.parallelStream()
+                .map(bean -> wrap(bean, beanManager))
+                .filter(Objects::nonNull)
+                .collect(toList()));
+
+        for (SimpleImmutableEntry<String, DynamicMBeanWrapper> wrapper : wrappers) {
+            registerMBean(wrapper.getKey(), wrapper.getValue());
+        }
+    }
+
+    private SimpleImmutableEntry<String, DynamicMBeanWrapper> wrap(Bean<?> bean, BeanManager beanManager) {
+        String mBeanName = getObjectNameFor(bean.getBeanClass());
+
+        try {
+            DynamicMBeanWrapper wrapper = lazyIntrospection ? DynamicMBeanWrapper.wrapLazily(bean, beanManager) : DynamicMBeanWrapper.wrap(bean, beanManager);
+            return new SimpleImmutableEntry<>(mBeanName, wrapper);
+        } catch (Exception e) {
+            logger.error(String.format("Class '%s' could not be registered as an MBean.", mBeanName), e);
+            return null;
+        }
+    }
+
+    private void registerMBean(String mBeanName, DynamicMBeanWrapper wrapper) {
         try {
-            DynamicMBeanWrapper wrapper = DynamicMBeanWrapper.wrap(event.getBean(), beanManager);
-            logger.debug("Registering MBean with name '{}' for class '{}'...", mBeanName, beanClass.getName());
+            logger.debug("Registering MBean with name '{}'...", mBeanName);
             mBeanServer.registerMBean(wrapper, new ObjectName(mBeanName));
             mBeansRegistry.put(mBeanName, wrapper);
             logger.debug("MBean '{}' registered successfully.", mBeanName);
@@ -62,17 +182,39 @@ public class JmxExtension implements Extension {
     }
 
     void shutdown(@Observes final BeforeShutdown shutdown) {
-        for (String mBeanName : mBeansRegistry.keySet()) {
-            try {
-                logger.debug("Unregistering MBean '{}'...", mBeanName);
-                mBeanServer.unregisterMBean(new ObjectName(mBeanName));
-                logger.debug("MBean '{}' unregistered successfully.", mBeanName);
-            } catch (MBeanRegistrationException | InstanceNotFoundException | MalformedObjectNameException e) {
-                logger.error(String.format("Error to unregister MBean '%s'.", mBeanName), e);
-            }
+        inParallel(() -> mBeansRegistry.keySet().parallelStream().forEach(this::unregisterMBean));
+        mBeansRegistry.clear();
+        InstanceRegistry.shutdown();
+    }
+
+    private void unregisterMBean(String mBeanName) {
+        try {
+            logger.debug("Unregistering MBean '{}'...", mBeanName);
+            mBeanServer.unregisterMBean(new ObjectName(mBeanName));
+            logger.debug("MBean '{}' unregistered successfully.", mBeanName);
+        } catch (MBeanRegistrationException | InstanceNotFoundException | MalformedObjectNameException e) {
+            logger.error(String.format("Error to unregister MBean '%s'.", mBeanName), e);
         }
+    }
 
-        mBeansRegistry.clear();
+    private static void inParallel(Runnable task) {
+        inParallel(Executors.callable(task));
+    }
+
+    // Parallel streams started from a task of a dedicated pool run on that pool instead of the common one
+    private static <T> T inParallel(Callable<T> task) {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
     }
 
     int getMBeanCount() {
@@ -0,0 +1,104 @@
+package com.cenerino.jmxext.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds. Buckets are log-linear: every power of two is split in 4 buckets of equal width,
+ * which bounds the error of any reported value to 25%. Latencies above 2^36 ns (about 68 s) fall in the last bucket. Memory is fixed:
+ * buckets are striped by thread, up to 8 stripes, so that threads recording at the same time seldom update the same counters, and
+ * stripes are only merged when a percentile is read.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)].incrementAndGet(bucketOf(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above, the position of the highest bit selects the power of two and the next
+    // SUB_BUCKET_BITS bits select the bucket within it
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+
+        if (exponent > MAX_EXPONENT)
+            return BUCKETS - 1;
+
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // Largest value that falls in the given bucket
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    double getMean() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : total.sum() / (double) samples;
+    }
+
+    /**
+     * @return the upper bound of the bucket holding the given percentile (between 0 and 100), capped at the largest recorded value
+     */
+    long getPercentile(double percentile) {
+        long[] buckets = new long[BUCKETS];
+        long samples = 0;
+
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long n = stripe.get(i);
+                buckets[i] += n;
+                samples += n;
+            }
+        }
+
+        long rank = (long) Math.ceil(samples * percentile / 100);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+
+            if (seen >= rank && seen > 0)
+                return Math.min(upperBoundOf(i), getMax());
+        }
+
+        return 0;
+    }
+}
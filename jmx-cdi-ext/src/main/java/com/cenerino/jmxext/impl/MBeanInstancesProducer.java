@@ -0,0 +1,16 @@
+package com.cenerino.jmxext.impl;
+
+import javax.enterprise.inject.Produces;
+
+import com.cenerino.jmxext.MBeanInstances;
+
+/**
+ * Gives beans the {@link MBeanInstances} through which they register the MBeans of instances the container does not construct.
+ */
+public class MBeanInstancesProducer {
+
+    @Produces
+    MBeanInstances mBeanInstances() {
+        return InstanceRegistry.getInstance();
+    }
+}
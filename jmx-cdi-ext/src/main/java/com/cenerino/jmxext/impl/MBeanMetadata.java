@@ -0,0 +1,351 @@
+package com.cenerino.jmxext.impl;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.MethodDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.management.AttributeChangeNotification;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.Notification;
+import javax.management.MBeanOperationInfo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cenerino.jmxext.ConsistentAttributes;
+import com.cenerino.jmxext.ForwardEvents;
+import com.cenerino.jmxext.MBean;
+import com.cenerino.jmxext.Sampled;
+import com.cenerino.jmxext.Timed;
+import com.cenerino.jmxext.metrics.Counter;
+import com.cenerino.jmxext.metrics.Gauge;
+import com.cenerino.jmxext.metrics.Meter;
+import com.cenerino.jmxext.spi.AttributeReader;
+import com.cenerino.jmxext.spi.AttributeWriter;
+import com.cenerino.jmxext.spi.MBeanMetadataBuilder;
+import com.cenerino.jmxext.spi.MBeanMetadataProvider;
+import com.cenerino.jmxext.spi.OperationInvoker;
+
+/**
+ * Attributes, operations and {@link MBeanInfo} exposed for an {@code @MBean} class. They are taken from the metadata generated at
+ * build time when it is available, otherwise from runtime introspection.
+ */
+class MBeanMetadata {
+
+    private static final Logger logger = LoggerFactory.getLogger(MBeanMetadata.class);
+    private static final Counter NO_COUNTER = new Counter();
+    private static final Gauge NO_GAUGE = () -> 0;
+    private static final Meter NO_METER = new Meter();
+    private static final ClassValue<MBeanMetadata> shared = new ClassValue<MBeanMetadata>() {
+
+        @Override
+        protected MBeanMetadata computeValue(Class<?> beanClass) {
+            try {
+                return of(beanClass);
+            } catch (IntrospectionException e) {
+                throw new IllegalStateException(String.format("Class '%s' could not be introspected.", beanClass.getName()), e);
+            }
+        }
+    };
+    private final Class<?> beanClass;
+    private final Map<String, ManagedAttribute> attributes = new LinkedHashMap<>();
+    private final List<ManagedOperation> operations = new ArrayList<>();
+    private Map<String, ManagedOperation[]> operationsByName;
+    private MBeanInfo mbeanInfo;
+    private boolean cachedAttributes;
+
+    private MBeanMetadata(Class<?> beanClass) {
+        this.beanClass = beanClass;
+    }
+
+    /**
+     * @return the metadata of the class, built once and shared by the MBeans of all its instances
+     */
+    static MBeanMetadata shared(Class<?> beanClass) {
+        return shared.get(beanClass);
+    }
+
+    static MBeanMetadata of(Class<?> beanClass) throws IntrospectionException {
+        MBeanMetadata metadata = new MBeanMetadata(beanClass);
+        MBeanMetadataProvider provider = generatedProviderFor(beanClass);
+
+        if (provider != null) {
+            logger.debug("Using generated metadata '{}' for class '{}'.", provider.getClass().getName(), beanClass.getName());
+            provider.describe(metadata.new Builder());
+        } else {
+            metadata.introspect();
+        }
+
+        metadata.applyClassSampling();
+        metadata.addTimedMethods();
+        metadata.addMetrics();
+        metadata.addNotificationStatistics();
+        metadata.indexOperations();
+        metadata.createMBeanInfo();
+        return metadata;
+    }
+
+    private static MBeanMetadataProvider generatedProviderFor(Class<?> beanClass) {
+        String providerName = beanClass.getName() + MBeanMetadataProvider.SUFFIX;
+
+        try {
+            Class<?> providerClass = Class.forName(providerName, true, beanClass.getClassLoader());
+            return (MBeanMetadataProvider) providerClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            logger.warn(String.format("Generated metadata '%s' could not be loaded. Falling back to introspection.", providerName), e);
+            return null;
+        }
+    }
+
+    private void introspect() throws IntrospectionException {
+        BeanInfo beanInfo = Introspector.getBeanInfo(beanClass, Object.class);
+        loadProperties(beanInfo);
+        loadOperations(beanInfo);
+    }
+
+    private void loadProperties(BeanInfo beanInfo) {
+        Stream.of(beanInfo.getPropertyDescriptors())
+        .filter(prop -> prop.getReadMethod() != null || prop.getWriteMethod() != null)
+        .forEach(prop -> addAttribute(new ManagedAttribute(prop)));
+    }
+
+    private void loadOperations(BeanInfo beanInfo) {
+        Stream.of(beanInfo.getMethodDescriptors())
+        .map(MethodDescriptor::getMethod)
+        .filter(method -> !isCallbackMethod(method))
+        .forEach(method -> addOperation(new ManagedOperation(method)));
+    }
+
+    // Methods through which the extension talks to the bean are not operations
+    private boolean isCallbackMethod(Method method) {
+        return ConsistentAttributes.class.isAssignableFrom(beanClass) && method.getName().equals("readSnapshot")
+                && Arrays.equals(method.getParameterTypes(), new Class<?>[] { Runnable.class });
+    }
+
+    private void addAttribute(ManagedAttribute attribute) {
+        logger.debug("Attribute '{}' will be exposed in the MBean.", attribute.getName());
+        attributes.put(attribute.getName(), attribute);
+        cachedAttributes |= attribute.isCached();
+    }
+
+    private void addOperation(ManagedOperation operation) {
+        logger.debug("Method '{}' will be exposed in the MBean.", operation.getName());
+        operations.add(operation);
+    }
+
+    // Readable attributes without a sampling interval of their own take the one declared on the class, if any
+    private void applyClassSampling() {
+        Sampled sampled = beanClass.getAnnotation(Sampled.class);
+
+        if (sampled == null)
+            return;
+
+        long intervalMillis = sampled.unit().toMillis(sampled.interval());
+        attributes.replaceAll((name, attribute) -> attribute.isReadable() && !attribute.isSampled() ? attribute.sampledEvery(intervalMillis)
+                : attribute);
+    }
+
+    // Every @Timed method gets read-only attributes publishing its histogram, which the interceptor records into
+    private void addTimedMethods() {
+        List<Method> timed = timedMethods();
+        Map<String, List<Method>> overloads = timed.stream().collect(groupingBy(Method::getName));
+
+        for (Method method : timed) {
+            String label = overloads.get(method.getName()).size() == 1 ? method.getName() : method.getName() + signatureOf(method);
+            LatencyHistogram latency = MethodTimers.of(method);
+            addAttribute(ManagedAttribute.detached(label + ".count", long.class, latency::getCount));
+            addAttribute(ManagedAttribute.detached(label + ".meanMicros", double.class, () -> micros(latency.getMean())));
+            addAttribute(ManagedAttribute.detached(label + ".p50Micros", double.class, () -> micros(latency.getPercentile(50))));
+            addAttribute(ManagedAttribute.detached(label + ".p99Micros", double.class, () -> micros(latency.getPercentile(99))));
+            addAttribute(ManagedAttribute.detached(label + ".p999Micros", double.class, () -> micros(latency.getPercentile(99.9))));
+            addAttribute(ManagedAttribute.detached(label + ".maxMicros", double.class, () -> micros(latency.getMax())));
+        }
+    }
+
+    // Methods the interceptor applies to: non-private instance methods of the bean class and its superclasses, either annotated or
+    // of an annotated bean class. A method overridden without the annotation is not timed.
+    private List<Method> timedMethods() {
+        boolean timedClass = beanClass.isAnnotationPresent(Timed.class);
+        Map<String, Method> methods = new LinkedHashMap<>();
+
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            Stream.of(type.getDeclaredMethods())
+            .filter(method -> !method.isSynthetic() && !Modifier.isStatic(method.getModifiers()) && !Modifier.isPrivate(method.getModifiers()))
+            .forEach(method -> methods.putIfAbsent(method.getName() + Arrays.toString(method.getParameterTypes()), method));
+        }
+
+        return methods.values().stream()
+                .filter(method -> timedClass || method.isAnnotationPresent(Timed.class))
+                .sorted(Comparator.comparing(Method::getName).thenComparing(MBeanMetadata::signatureOf))
+                .collect(toList());
+    }
+
+    private static String signatureOf(Method method) {
+        return Stream.of(method.getParameterTypes()).map(Class::getSimpleName).collect(joining(",", "(", ")"));
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1000;
+    }
+
+    // Metric fields are read from the metric objects bound when the bean was created, which read as zero until then
+    private void addMetrics() {
+        BeanMetrics metrics = BeanMetrics.of(beanClass);
+
+        for (int i = 0; i < metrics.size(); i++) {
+            int index = i;
+            String name = metrics.nameOf(index);
+            Class<?> type = metrics.typeOf(index);
+
+            if (type == Counter.class) {
+                addAttribute(ManagedAttribute.detached(name, long.class, () -> metrics.get(index, NO_COUNTER).getCount()));
+            } else if (type == Gauge.class) {
+                addAttribute(ManagedAttribute.detached(name, long.class, () -> metrics.get(index, NO_GAUGE).getValue()));
+            } else {
+                Supplier<Meter> meter = () -> metrics.get(index, NO_METER);
+                addAttribute(ManagedAttribute.detached(name + ".count", long.class, () -> meter.get().getCount()));
+                addAttribute(ManagedAttribute.detached(name + ".meanRate", double.class, () -> meter.get().getMeanRate()));
+                addAttribute(ManagedAttribute.detached(name + ".oneMinuteRate", double.class, () -> meter.get().getOneMinuteRate()));
+                addAttribute(ManagedAttribute.detached(name + ".fiveMinuteRate", double.class, () -> meter.get().getFiveMinuteRate()));
+                addAttribute(ManagedAttribute.detached(name + ".fifteenMinuteRate", double.class, () -> meter.get().getFifteenMinuteRate()));
+            }
+        }
+    }
+
+    private void addNotificationStatistics() {
+        if (notificationTypes().length > 0) {
+            NotificationChannel channel = NotificationChannel.of(beanClass);
+            addAttribute(ManagedAttribute.detached("notifications.sent", long.class, channel::getSent));
+            addAttribute(ManagedAttribute.detached("notifications.coalesced", long.class, channel::getCoalesced));
+            addAttribute(ManagedAttribute.detached("notifications.dropped", long.class, channel::getDropped));
+        }
+
+        if (forwardedEventTypes().length > 0) {
+            NotificationChannel channel = NotificationChannel.forEvents(beanClass);
+            addAttribute(ManagedAttribute.detached("events.forwarded", long.class, channel::getSent));
+            addAttribute(ManagedAttribute.detached("events.coalesced", long.class, channel::getCoalesced));
+            addAttribute(ManagedAttribute.detached("events.dropped", long.class, channel::getDropped));
+        }
+    }
+
+    private String[] notificationTypes() {
+        return beanClass.getAnnotation(MBean.class).notificationTypes();
+    }
+
+    private String[] forwardedEventTypes() {
+        ForwardEvents forwardEvents = beanClass.getAnnotation(ForwardEvents.class);
+        return forwardEvents == null ? new String[0] : Stream.of(forwardEvents.value()).map(Class::getName).toArray(String[]::new);
+    }
+
+    private void indexOperations() {
+        Map<String, ManagedOperation[]> index = new HashMap<>();
+        operations.stream()
+        .collect(groupingBy(ManagedOperation::getName))
+        .forEach((name, overloads) -> index.put(name, overloads.toArray(new ManagedOperation[overloads.size()])));
+        operationsByName = unmodifiableMap(index);
+    }
+
+    private void createMBeanInfo() {
+        String description = beanClass.getAnnotation(MBean.class).description();
+        MBeanAttributeInfo[] attributeInfos = attributes.values().stream().map(ManagedAttribute::toAttributeInfo).toArray(MBeanAttributeInfo[]::new);
+        MBeanOperationInfo[] operationInfos = operations.stream().map(ManagedOperation::toOperationInfo).toArray(MBeanOperationInfo[]::new);
+        mbeanInfo = new MBeanInfo(beanClass.getName(), description, attributeInfos, null, operationInfos, createNotificationInfos());
+    }
+
+    private MBeanNotificationInfo[] createNotificationInfos() {
+        List<MBeanNotificationInfo> infos = new ArrayList<>();
+
+        if (notificationTypes().length > 0)
+            infos.add(new MBeanNotificationInfo(notificationTypes(), Notification.class.getName(), "Notifications published by the bean"));
+
+        if (forwardedEventTypes().length > 0)
+            infos.add(new MBeanNotificationInfo(forwardedEventTypes(), Notification.class.getName(), "CDI events forwarded by the MBean"));
+
+        if (attributes.values().stream().anyMatch(ManagedAttribute::isWatched))
+            infos.add(new MBeanNotificationInfo(new String[] { AttributeChangeNotification.ATTRIBUTE_CHANGE },
+                    AttributeChangeNotification.class.getName(), "Changes of watched attributes"));
+
+        return infos.isEmpty() ? null : infos.toArray(new MBeanNotificationInfo[infos.size()]);
+    }
+
+    Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    ManagedAttribute getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    Collection<ManagedAttribute> getAttributes() {
+        return attributes.values();
+    }
+
+    ManagedOperation findOperation(String name, String[] signature) {
+        ManagedOperation[] overloads = operationsByName.get(name);
+
+        if (overloads == null) return null;
+
+        for (ManagedOperation operation : overloads) {
+            if (operation.matchesExactly(signature)) return operation;
+        }
+
+        for (ManagedOperation operation : overloads) {
+            if (operation.matchesLeniently(signature)) return operation;
+        }
+
+        return null;
+    }
+
+    boolean hasCachedAttributes() {
+        return cachedAttributes;
+    }
+
+    MBeanInfo getMBeanInfo() {
+        return mbeanInfo;
+    }
+
+    private class Builder implements MBeanMetadataBuilder {
+
+        @Override
+        public void attribute(String name, Class<?> type, boolean is, AttributeReader reader, AttributeWriter writer, long cacheTtlMillis) {
+            addAttribute(new ManagedAttribute(name, type, is, reader, writer, cacheTtlMillis));
+        }
+
+        @Override
+        public void sampled(String name, long intervalMillis) {
+            attributes.computeIfPresent(name, (key, attribute) -> attribute.sampledEvery(intervalMillis));
+        }
+
+        @Override
+        public void watched(String name) {
+            attributes.computeIfPresent(name, (key, attribute) -> attribute.watched());
+        }
+
+        @Override
+        public void operation(String name, Class<?> returnType, Class<?>[] parameterTypes, OperationInvoker invoker) {
+            addOperation(new ManagedOperation(name, returnType, parameterTypes, invoker));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.cenerino.jmxext.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access statistics of the members of one MBean. Members get their statistics when they are first accessed.
+ */
+class MBeanStatistics {
+
+    private final Map<String, MemberStatistics> reads = new ConcurrentHashMap<>();
+    private final Map<String, MemberStatistics> writes = new ConcurrentHashMap<>();
+    private final Map<ManagedOperation, MemberStatistics> invocations = new ConcurrentHashMap<>();
+
+    MemberStatistics read(String attribute) {
+        return of(reads, attribute);
+    }
+
+    MemberStatistics write(String attribute) {
+        return of(writes, attribute);
+    }
+
+    MemberStatistics invocation(ManagedOperation operation) {
+        return of(invocations, operation);
+    }
+
+    // Plain lookup first, as computeIfAbsent locks the bin even when the key is present
+    private static <K> MemberStatistics of(Map<K, MemberStatistics> members, K key) {
+        MemberStatistics statistics = members.get(key);
+        return statistics != null ? statistics : members.computeIfAbsent(key, k -> new MemberStatistics());
+    }
+
+    void forEach(MemberVisitor visitor) {
+        reads.forEach((attribute, statistics) -> visitor.visit("read", attribute, statistics));
+        writes.forEach((attribute, statistics) -> visitor.visit("write", attribute, statistics));
+        invocations.forEach((operation, statistics) -> visitor.visit("invoke", operation.toString(), statistics));
+    }
+
+    void reset() {
+        reads.clear();
+        writes.clear();
+        invocations.clear();
+    }
+
+    interface MemberVisitor {
+
+        void visit(String kind, String member, MemberStatistics statistics);
+    }
+}
@@ -0,0 +1,221 @@
+package com.cenerino.jmxext.impl;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.management.Descriptor;
+import javax.management.ImmutableDescriptor;
+import javax.management.MBeanAttributeInfo;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenMBeanAttributeInfoSupport;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import com.cenerino.jmxext.CachedAttribute;
+import com.cenerino.jmxext.Sampled;
+import com.cenerino.jmxext.Watched;
+
+import com.cenerino.jmxext.spi.AttributeReader;
+import com.cenerino.jmxext.spi.AttributeWriter;
+
+class ManagedAttribute {
+
+    private final String name;
+    private final Class<?> type;
+    private final boolean is;
+    private final AttributeReader reader;
+    private final AttributeWriter writer;
+    private final long cacheTtlMillis;
+    private final long samplingIntervalMillis;
+    private final boolean detached;
+    private final boolean watched;
+    private final OpenTypeConverter converter;
+
+    ManagedAttribute(PropertyDescriptor property) {
+        this(property.getName(), property.getPropertyType(), isIs(property.getReadMethod()), reader(property.getReadMethod()),
+                writer(property.getWriteMethod()), cacheTtlMillis(property.getReadMethod()), samplingIntervalMillis(property.getReadMethod()),
+                false, isWatched(property.getReadMethod()), OpenTypeConverter.of(genericType(property)));
+    }
+
+    ManagedAttribute(String name, Class<?> type, boolean is, AttributeReader reader, AttributeWriter writer, long cacheTtlMillis) {
+        this(name, type, is, reader, writer, cacheTtlMillis, 0, false, false, OpenTypeConverter.of(type));
+    }
+
+    private ManagedAttribute(String name, Class<?> type, boolean is, AttributeReader reader, AttributeWriter writer, long cacheTtlMillis,
+            long samplingIntervalMillis, boolean detached, boolean watched, OpenTypeConverter converter) {
+        this.name = name;
+        this.type = type;
+        this.is = is;
+        this.reader = reader;
+        this.writer = writer;
+        this.cacheTtlMillis = reader == null ? 0 : cacheTtlMillis;
+        this.samplingIntervalMillis = reader == null ? 0 : samplingIntervalMillis;
+        this.detached = detached;
+        this.watched = reader != null && watched;
+        this.converter = converter;
+    }
+
+    // Read-only attribute computed by the extension itself, which is read without resolving the bean
+    static ManagedAttribute detached(String name, Class<?> type, Supplier<?> value) {
+        return new ManagedAttribute(name, type, false, bean -> value.get(), null, 0, 0, true, false, null);
+    }
+
+    // Type arguments of collections and maps are only known from the generic signature of the accessors
+    private static Type genericType(PropertyDescriptor property) {
+        Method readMethod = property.getReadMethod();
+        return readMethod != null ? readMethod.getGenericReturnType() : property.getWriteMethod().getGenericParameterTypes()[0];
+    }
+
+    private static boolean isIs(Method readMethod) {
+        return readMethod != null && readMethod.getName().startsWith("is");
+    }
+
+    private static long cacheTtlMillis(Method readMethod) {
+        CachedAttribute cached = readMethod == null ? null : readMethod.getAnnotation(CachedAttribute.class);
+        return cached == null ? 0 : cached.unit().toMillis(cached.ttl());
+    }
+
+    private static boolean isWatched(Method readMethod) {
+        return readMethod != null && readMethod.isAnnotationPresent(Watched.class);
+    }
+
+    private static long samplingIntervalMillis(Method readMethod) {
+        Sampled sampled = readMethod == null ? null : readMethod.getAnnotation(Sampled.class);
+        return sampled == null ? 0 : sampled.unit().toMillis(sampled.interval());
+    }
+
+    private static AttributeReader reader(Method readMethod) {
+        return readMethod == null ? null : Accessors.reader(readMethod);
+    }
+
+    private static AttributeWriter writer(Method writeMethod) {
+        return writeMethod == null ? null : Accessors.writer(writeMethod);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    boolean isIs() {
+        return is;
+    }
+
+    boolean isReadable() {
+        return reader != null;
+    }
+
+    boolean isWritable() {
+        return writer != null;
+    }
+
+    boolean isCached() {
+        return cacheTtlMillis > 0;
+    }
+
+    long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    boolean isSampled() {
+        return samplingIntervalMillis > 0;
+    }
+
+    long getSamplingIntervalMillis() {
+        return samplingIntervalMillis;
+    }
+
+    boolean isDetached() {
+        return detached;
+    }
+
+    ManagedAttribute sampledEvery(long intervalMillis) {
+        return new ManagedAttribute(name, type, is, reader, writer, cacheTtlMillis, intervalMillis, detached, watched, converter);
+    }
+
+    boolean isWatched() {
+        return watched;
+    }
+
+    ManagedAttribute watched() {
+        return new ManagedAttribute(name, type, is, reader, writer, cacheTtlMillis, samplingIntervalMillis, detached, true, converter);
+    }
+
+    /**
+     * @return whether values of the attribute are mapped to values of another (open) type when read and written through JMX
+     */
+    boolean isConverted() {
+        return converter != null;
+    }
+
+    // Name of the type of the attribute's values as seen through JMX
+    String getOpenTypeName() {
+        return converter != null ? converter.getOpenType().getClassName() : type.getName();
+    }
+
+    Object read(Object target) throws Exception {
+        return reader.read(target);
+    }
+
+    // Handle of the attribute's getter returning the given type, or null if the attribute is not read through a method handle
+    MethodHandle handle(Class<?> returnType) {
+        return reader instanceof Accessors.HandleReader ? ((Accessors.HandleReader) reader).handle(returnType) : null;
+    }
+
+    void write(Object target, Object value) throws Exception {
+        writer.write(target, value);
+    }
+
+    Object toOpenValue(Object value) throws OpenDataException {
+        return converter == null || value == null ? value : converter.toOpenValue(value);
+    }
+
+    // Values of the attribute's own type, as given by local clients, are written as they are
+    Object fromOpenValue(Object value) throws OpenDataException {
+        return converter == null || value == null || type.isInstance(value) ? value : converter.fromOpenValue(value);
+    }
+
+    boolean accepts(Object value) {
+        if (value == null)
+            return !type.isPrimitive();
+
+        return ClassUtils.isAssignable(value.getClass(), type, true) || converter != null && converter.getOpenType().isValue(value);
+    }
+
+    MBeanAttributeInfo toAttributeInfo() {
+        return toAttributeInfo(ImmutableDescriptor.EMPTY_DESCRIPTOR);
+    }
+
+    /**
+     * @param extra fields added to the attribute's descriptor
+     */
+    MBeanAttributeInfo toAttributeInfo(Descriptor extra) {
+        Map<String, Object> descriptor = new LinkedHashMap<>();
+
+        if (isCached())
+            descriptor.put("cacheTtlMillis", cacheTtlMillis);
+
+        if (isSampled())
+            descriptor.put("samplingIntervalMillis", samplingIntervalMillis);
+
+        if (isWatched())
+            descriptor.put("watched", true);
+
+        if (isConverted()) {
+            descriptor.put("originalType", type.getName());
+            return new OpenMBeanAttributeInfoSupport(name, name, converter.getOpenType(), isReadable(), isWritable(), is,
+                    ImmutableDescriptor.union(new ImmutableDescriptor(descriptor), extra));
+        }
+
+        return new MBeanAttributeInfo(name, type.getName(), null, isReadable(), isWritable(), is,
+                ImmutableDescriptor.union(new ImmutableDescriptor(descriptor), extra));
+    }
+}
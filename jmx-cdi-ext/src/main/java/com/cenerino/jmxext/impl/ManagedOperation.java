@@ -0,0 +1,93 @@
+package com.cenerino.jmxext.impl;
+
+import static javax.management.MBeanOperationInfo.UNKNOWN;
+import static org.apache.commons.lang3.ClassUtils.primitiveToWrapper;
+import static org.apache.commons.lang3.ClassUtils.wrapperToPrimitive;
+
+import java.lang.reflect.Method;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+
+import com.cenerino.jmxext.spi.OperationInvoker;
+
+class ManagedOperation {
+
+    private final String name;
+    private final OperationInvoker invoker;
+    private final MBeanOperationInfo operationInfo;
+    private final String[] signature;
+    private final String[] alternativeSignature;
+
+    ManagedOperation(Method method) {
+        this(method.getName(), method.getParameterTypes(), Accessors.invoker(method), new MBeanOperationInfo(method.getName(), method));
+    }
+
+    ManagedOperation(String name, Class<?> returnType, Class<?>[] parameterTypes, OperationInvoker invoker) {
+        this(name, parameterTypes, invoker, new MBeanOperationInfo(name, name, parameterInfos(parameterTypes), returnType.getName(), UNKNOWN));
+    }
+
+    private ManagedOperation(String name, Class<?>[] parameterTypes, OperationInvoker invoker, MBeanOperationInfo operationInfo) {
+        this.name = name;
+        this.invoker = invoker;
+        this.operationInfo = operationInfo;
+        this.signature = Stream.of(parameterTypes).map(Class::getName).toArray(String[]::new);
+        this.alternativeSignature = Stream.of(parameterTypes).map(ManagedOperation::alternativeTypeName).toArray(String[]::new);
+    }
+
+    // Same naming as the MBeanOperationInfo(String, Method) constructor
+    private static MBeanParameterInfo[] parameterInfos(Class<?>[] parameterTypes) {
+        return IntStream.range(0, parameterTypes.length)
+                .mapToObj(i -> new MBeanParameterInfo("p" + (i + 1), parameterTypes[i].getName(), ""))
+                .toArray(MBeanParameterInfo[]::new);
+    }
+
+    // JMX clients often build signatures from the runtime class of the arguments, so boxed and primitive names are interchangeable
+    private static String alternativeTypeName(Class<?> type) {
+        Class<?> alternative = type.isPrimitive() ? primitiveToWrapper(type) : wrapperToPrimitive(type);
+        return alternative == null ? type.getName() : alternative.getName();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + String.join(", ", signature) + ")";
+    }
+
+    MBeanOperationInfo toOperationInfo() {
+        return operationInfo;
+    }
+
+    Object invoke(Object target, Object[] args) throws Exception {
+        return invoker.invoke(target, args);
+    }
+
+    boolean matchesExactly(String[] parameterTypes) {
+        if (!hasSameArity(parameterTypes)) return false;
+
+        for (int i = 0; i < signature.length; i++) {
+            if (!signature[i].equals(parameterTypes[i])) return false;
+        }
+
+        return true;
+    }
+
+    boolean matchesLeniently(String[] parameterTypes) {
+        if (!hasSameArity(parameterTypes)) return false;
+
+        for (int i = 0; i < signature.length; i++) {
+            if (!signature[i].equals(parameterTypes[i]) && !alternativeSignature[i].equals(parameterTypes[i])) return false;
+        }
+
+        return true;
+    }
+
+    private boolean hasSameArity(String[] parameterTypes) {
+        return signature.length == (parameterTypes == null ? 0 : parameterTypes.length);
+    }
+}
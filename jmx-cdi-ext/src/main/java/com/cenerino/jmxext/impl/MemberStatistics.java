@@ -0,0 +1,45 @@
+package com.cenerino.jmxext.impl;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls, failures and latency of one attribute read, attribute write or operation of an MBean.
+ */
+class MemberStatistics {
+
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    <T, E extends Exception> T time(Call<T, E> call) throws E {
+        long start = System.nanoTime();
+        boolean failed = true;
+
+        try {
+            T result = call.call();
+            failed = false;
+            return result;
+        } finally {
+            latency.record(System.nanoTime() - start);
+
+            if (failed)
+                errors.increment();
+        }
+    }
+
+    long getCalls() {
+        return latency.getCount();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    interface Call<T, E extends Exception> {
+
+        T call() throws E;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cenerino.jmxext.impl;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms of {@code @Timed} methods, shared by the interceptor, which records into them, and the MBeans, which publish
+ * them. Histograms hang off the declaring class, so they go away with it when an application is undeployed.
+ */
+final class MethodTimers {
+
+    private static final ClassValue<Map<Method, LatencyHistogram>> timers = new ClassValue<Map<Method, LatencyHistogram>>() {
+
+        @Override
+        protected Map<Method, LatencyHistogram> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private MethodTimers() {
+    }
+
+    static LatencyHistogram of(Method method) {
+        Map<Method, LatencyHistogram> histograms = timers.get(method.getDeclaringClass());
+        LatencyHistogram histogram = histograms.get(method);
+        return histogram != null ? histogram : histograms.computeIfAbsent(method, m -> new LatencyHistogram());
+    }
+}
@@ -0,0 +1,52 @@
+package com.cenerino.jmxext.impl;
+
+import java.util.Set;
+
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.enterprise.inject.spi.InjectionTarget;
+
+/**
+ * Binds the {@link com.cenerino.jmxext.metrics.Metric} fields of every instance of an {@code @MBean} bean once it is constructed.
+ */
+class MetricsInjectionTarget<T> implements InjectionTarget<T> {
+
+    private final InjectionTarget<T> delegate;
+    private final BeanMetrics metrics;
+
+    MetricsInjectionTarget(InjectionTarget<T> delegate, BeanMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public T produce(CreationalContext<T> context) {
+        return delegate.produce(context);
+    }
+
+    @Override
+    public void inject(T instance, CreationalContext<T> context) {
+        delegate.inject(instance, context);
+    }
+
+    @Override
+    public void postConstruct(T instance) {
+        delegate.postConstruct(instance);
+        metrics.bind(instance);
+    }
+
+    @Override
+    public void preDestroy(T instance) {
+        delegate.preDestroy(instance);
+    }
+
+    @Override
+    public void dispose(T instance) {
+        delegate.dispose(instance);
+    }
+
+    @Override
+    public Set<InjectionPoint> getInjectionPoints() {
+        return delegate.getInjectionPoints();
+    }
+}
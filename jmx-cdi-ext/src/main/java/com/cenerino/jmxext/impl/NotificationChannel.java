@@ -0,0 +1,277 @@
+package com.cenerino.jmxext.impl;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.inject.Vetoed;
+import javax.management.Notification;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cenerino.jmxext.NotificationPublisher;
+
+/**
+ * Notifications published by the beans of a class, queued until they are sent to the listeners of its MBean. The queue is lock-free
+ * and bounded: publishing only appends to it, or drops the notification when it is full. A flush is scheduled on a thread shared by
+ * all MBeans when notifications are pending and the MBean is registered; each flush sends one batch and schedules the next one, no
+ * sooner than a batch interval later, if more are pending. A bean class has a channel for the notifications its beans publish and
+ * another for the CDI events forwarded by its MBean, each with its own queue and counters. Forwarded events are queued as they are
+ * and only turned into a message by the flush, so that their {@code toString()} never runs on the thread firing them. The MBeans of the instances of a
+ * {@code perInstance} class are all attached to the channels of the class, so each of them sends every notification.
+ */
+@Vetoed
+final class NotificationChannel implements NotificationPublisher {
+
+    static final String CAPACITY_PROPERTY = "com.cenerino.jmxext.notifications.capacity";
+    static final String BATCH_SIZE_PROPERTY = "com.cenerino.jmxext.notifications.batchSize";
+    static final String BATCH_MILLIS_PROPERTY = "com.cenerino.jmxext.notifications.batchMillis";
+    private static final Logger logger = LoggerFactory.getLogger(NotificationChannel.class);
+    private static final int CAPACITY = Math.max(1, Integer.getInteger(CAPACITY_PROPERTY, 1024));
+    private static final int BATCH_SIZE = Math.max(1, Integer.getInteger(BATCH_SIZE_PROPERTY, 100));
+    private static final long BATCH_NANOS = MILLISECONDS.toNanos(Math.max(1, Long.getLong(BATCH_MILLIS_PROPERTY, 100)));
+    private static final ScheduledThreadPoolExecutor executor = createExecutor();
+    private static final ClassValue<NotificationChannel> channels = new ClassValue<NotificationChannel>() {
+
+        @Override
+        protected NotificationChannel computeValue(Class<?> beanClass) {
+            return new NotificationChannel();
+        }
+    };
+    private static final ClassValue<NotificationChannel> eventChannels = new ClassValue<NotificationChannel>() {
+
+        @Override
+        protected NotificationChannel computeValue(Class<?> beanClass) {
+            return new NotificationChannel();
+        }
+    };
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long lastFlush = System.nanoTime() - BATCH_NANOS;
+    private volatile Target[] targets = {};
+
+    private NotificationChannel() {
+    }
+
+    private static ScheduledThreadPoolExecutor createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "jmxext-notifications");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(60, SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    static NotificationChannel of(Class<?> beanClass) {
+        return channels.get(beanClass);
+    }
+
+    static NotificationChannel forEvents(Class<?> beanClass) {
+        return eventChannels.get(beanClass);
+    }
+
+    @Override
+    public boolean publish(String type, String message) {
+        return publish(type, message, null);
+    }
+
+    @Override
+    public boolean publish(String type, String message, Object userData) {
+        return offer(new Pending(type, message, null, userData, System.currentTimeMillis()));
+    }
+
+    boolean forward(String type, Object event) {
+        return offer(new Pending(type, null, event, null, System.currentTimeMillis()));
+    }
+
+    private boolean offer(Pending pending) {
+        if (size.incrementAndGet() > CAPACITY) {
+            size.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+
+        queue.offer(pending);
+        scheduleFlush();
+        return true;
+    }
+
+    // A single volatile read (two when registered) for notifications that nobody would receive
+    boolean isListened() {
+        for (Target current : targets) {
+            if (current.broadcaster.hasListeners())
+                return true;
+        }
+
+        return false;
+    }
+
+    synchronized void attach(MBeanNotifications broadcaster, ObjectName source) {
+        List<Target> attached = without(broadcaster);
+        attached.add(new Target(broadcaster, source));
+        targets = attached.toArray(new Target[attached.size()]);
+        scheduleFlush();
+    }
+
+    synchronized void detach(MBeanNotifications broadcaster) {
+        List<Target> attached = without(broadcaster);
+        targets = attached.toArray(new Target[attached.size()]);
+    }
+
+    private List<Target> without(MBeanNotifications broadcaster) {
+        List<Target> attached = new ArrayList<>(targets.length + 1);
+
+        for (Target current : targets) {
+            if (current.broadcaster != broadcaster)
+                attached.add(current);
+        }
+
+        return attached;
+    }
+
+    private void scheduleFlush() {
+        if (targets.length == 0 || size.get() == 0 || !scheduled.compareAndSet(false, true))
+            return;
+
+        long delay = Math.max(0, lastFlush + BATCH_NANOS - System.nanoTime());
+        executor.schedule(this::flush, delay, NANOSECONDS);
+    }
+
+    private void flush() {
+        lastFlush = System.nanoTime();
+
+        try {
+            Target[] current = targets;
+
+            if (current.length > 0)
+                send(current, nextBatch());
+        } catch (RuntimeException e) {
+            logger.warn("Notifications could not be sent.", e);
+        } finally {
+            scheduled.set(false);
+        }
+
+        scheduleFlush();
+    }
+
+    private Set<Pending> nextBatch() {
+        Set<Pending> batch = new LinkedHashSet<>();
+        int polled = 0;
+        Pending pending;
+
+        while (polled < BATCH_SIZE && (pending = queue.poll()) != null) {
+            size.decrementAndGet();
+            polled++;
+
+            if (!pending.describe())
+                dropped.increment();
+            else if (!batch.add(pending))
+                coalesced.increment();
+        }
+
+        return batch;
+    }
+
+    private void send(Target[] current, Set<Pending> batch) {
+        for (Pending pending : batch) {
+            sent.increment();
+
+            for (Target target : current) {
+                Notification notification = new Notification(pending.type, target.source, target.broadcaster.nextSequenceNumber(),
+                        pending.timeStamp, pending.message);
+                notification.setUserData(pending.userData);
+                target.broadcaster.sendNotification(notification);
+            }
+        }
+    }
+
+    long getSent() {
+        return sent.sum();
+    }
+
+    long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    private static class Target {
+
+        private final MBeanNotifications broadcaster;
+        private final ObjectName source;
+
+        Target(MBeanNotifications broadcaster, ObjectName source) {
+            this.broadcaster = broadcaster;
+            this.source = source;
+        }
+    }
+
+    // Equal when the notifications would only differ by sequence number and time stamp, so that they are coalesced
+    private static class Pending {
+
+        private final String type;
+        private String message;
+        private Object event;
+        private final Object userData;
+        private final long timeStamp;
+
+        Pending(String type, String message, Object event, Object userData, long timeStamp) {
+            this.type = type;
+            this.message = message;
+            this.event = event;
+            this.userData = userData;
+            this.timeStamp = timeStamp;
+        }
+
+        // Run by the flush, before the notification is compared with the others of its batch
+        boolean describe() {
+            if (event == null)
+                return true;
+
+            try {
+                message = event.toString();
+                event = null;
+                return true;
+            } catch (RuntimeException e) {
+                logger.warn(String.format("Event of type '%s' could not be forwarded.", type), e);
+                return false;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Pending))
+                return false;
+
+            Pending other = (Pending) obj;
+            return Objects.equals(type, other.type) && Objects.equals(message, other.message) && Objects.equals(userData, other.userData);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, message, userData);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.cenerino.jmxext.impl;
+
+import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+import com.cenerino.jmxext.NotificationPublisher;
+
+/**
+ * Gives every bean the {@link NotificationPublisher} of its class, whose notifications are sent by the MBean of that class.
+ */
+public class NotificationPublisherProducer {
+
+    @Produces
+    NotificationPublisher publisher(InjectionPoint injectionPoint) {
+        Class<?> beanClass = injectionPoint.getBean() != null ? injectionPoint.getBean().getBeanClass()
+                : injectionPoint.getMember().getDeclaringClass();
+        return NotificationChannel.of(beanClass);
+    }
+}
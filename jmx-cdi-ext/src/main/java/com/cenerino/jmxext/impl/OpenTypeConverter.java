@@ -0,0 +1,638 @@
+package com.cenerino.jmxext.impl;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.openmbean.ArrayType;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import com.cenerino.jmxext.spi.AttributeReader;
+import com.cenerino.jmxext.spi.AttributeWriter;
+
+/**
+ * Maps values of a Java type to Open MBean values, so that remote clients can read them without the application's classes and
+ * without Java serialization of its objects:
+ * <ul>
+ * <li>enums become strings and atomic numbers (and adders) their value;</li>
+ * <li>arrays and collections of convertible elements become arrays of the converted elements;</li>
+ * <li>maps become {@link TabularData} indexed by {@code key}, with {@code key} and {@code value} items;</li>
+ * <li>other application classes become {@link CompositeData} with an item per readable property.</li>
+ * </ul>
+ * Converters are derived once per type, with the accessors of composite properties and the converters of elements already
+ * resolved, and cached, so that every attribute of a type shares its {@link OpenType}. Types already open (primitives, strings,
+ * dates...) need no converter; types that cannot be mapped (e.g. type variables, JDK classes not listed above or classes that
+ * reference themselves) keep being returned as they are.
+ */
+abstract class OpenTypeConverter {
+
+    private static final Map<Class<?>, SimpleType<?>> SIMPLE_TYPES = simpleTypes();
+    private static final OpenTypeConverter UNMAPPED = new OpenTypeConverter(null) {
+        @Override
+        Object toOpenValue(Object value) {
+            return value;
+        }
+
+        @Override
+        Object fromOpenValue(Object value) {
+            return value;
+        }
+    };
+    // Held by the class of each type whose loader is the lowest one, so that the converters of an application's types never keep its
+    // classloader alive once it is undeployed
+    private static final ClassValue<Map<Type, OpenTypeConverter>> converters = new ClassValue<Map<Type, OpenTypeConverter>>() {
+
+        @Override
+        protected Map<Type, OpenTypeConverter> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private final OpenType<?> openType;
+
+    private OpenTypeConverter(OpenType<?> openType) {
+        this.openType = openType;
+    }
+
+    private static Map<Class<?>, SimpleType<?>> simpleTypes() {
+        Map<Class<?>, SimpleType<?>> types = new HashMap<>();
+        SimpleType<?>[] all = { SimpleType.VOID, SimpleType.BOOLEAN, SimpleType.CHARACTER, SimpleType.BYTE, SimpleType.SHORT,
+                SimpleType.INTEGER, SimpleType.LONG, SimpleType.FLOAT, SimpleType.DOUBLE, SimpleType.STRING, SimpleType.BIGDECIMAL,
+                SimpleType.BIGINTEGER, SimpleType.DATE, SimpleType.OBJECTNAME };
+
+        for (SimpleType<?> type : all) {
+            Class<?> wrapper = classOf(type);
+            types.put(wrapper, type);
+
+            if (wrapper != Void.class && ClassUtils.wrapperToPrimitive(wrapper) != null)
+                types.put(ClassUtils.wrapperToPrimitive(wrapper), type);
+        }
+
+        types.put(void.class, SimpleType.VOID);
+        return types;
+    }
+
+    /**
+     * @return the converter of values of the given type, or {@code null} if they are already open values or cannot be mapped
+     */
+    static OpenTypeConverter of(Type type) {
+        OpenTypeConverter converter = get(type, new HashSet<>());
+        return converter == UNMAPPED || isOpen(type) ? null : converter;
+    }
+
+    private static boolean isOpen(Type type) {
+        return type instanceof Class && (SIMPLE_TYPES.containsKey(type) || isOpenArray((Class<?>) type)
+                || CompositeData.class.isAssignableFrom((Class<?>) type) || TabularData.class.isAssignableFrom((Class<?>) type));
+    }
+
+    private static boolean isOpenArray(Class<?> type) {
+        Class<?> component = type;
+
+        while (component.isArray()) {
+            component = component.getComponentType();
+        }
+
+        return component != type && SIMPLE_TYPES.containsKey(component) && component != void.class && component != Void.class;
+    }
+
+    // Converters are not derived within computeIfAbsent, as deriving one derives those of its items on the same map. Two threads
+    // may derive the same converter, and the first one stored wins.
+    private static OpenTypeConverter get(Type type, Set<Type> deriving) {
+        Class<?> owner = ownerOf(type);
+        Map<Type, OpenTypeConverter> cache = owner != null ? converters.get(owner) : new HashMap<>();
+        OpenTypeConverter converter = cache.get(type);
+
+        if (converter != null)
+            return converter;
+
+        // A type reachable from itself has no open type
+        if (!deriving.add(type))
+            return UNMAPPED;
+
+        try {
+            converter = derive(type, deriving);
+        } catch (OpenDataException | IntrospectionException e) {
+            converter = UNMAPPED;
+        } finally {
+            deriving.remove(type);
+        }
+
+        OpenTypeConverter existing = cache.putIfAbsent(type, converter);
+        return existing != null ? existing : converter;
+    }
+
+    /**
+     * @return the class of the type (or of its arguments and components) whose loader is the lowest one, or {@code null} for types
+     *         with type variables, which are not cached
+     */
+    static Class<?> ownerOf(Type type) {
+        if (type instanceof Class) {
+            Class<?> cls = (Class<?>) type;
+            return cls.isArray() ? ownerOf(cls.getComponentType()) : cls;
+        }
+
+        if (type instanceof GenericArrayType)
+            return ownerOf(((GenericArrayType) type).getGenericComponentType());
+
+        if (type instanceof ParameterizedType) {
+            Class<?> owner = ownerOf(((ParameterizedType) type).getRawType());
+
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                Class<?> candidate = ownerOf(argument);
+
+                if (candidate == null)
+                    return null;
+
+                if (isBelow(candidate.getClassLoader(), owner.getClassLoader()))
+                    owner = candidate;
+            }
+
+            return owner;
+        }
+
+        if (type instanceof WildcardType) {
+            Type[] lower = ((WildcardType) type).getLowerBounds();
+            return ownerOf(lower.length > 0 ? lower[0] : ((WildcardType) type).getUpperBounds()[0]);
+        }
+
+        return null;
+    }
+
+    private static boolean isBelow(ClassLoader loader, ClassLoader other) {
+        if (loader == other || loader == null)
+            return false;
+
+        for (ClassLoader parent = loader.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == other)
+                return true;
+        }
+
+        // Every loader is below the bootstrap one
+        return other == null;
+    }
+
+    private static OpenTypeConverter derive(Type type, Set<Type> deriving) throws OpenDataException, IntrospectionException {
+        if (type instanceof GenericArrayType)
+            return array(((GenericArrayType) type).getGenericComponentType(), deriving);
+
+        if (type instanceof ParameterizedType)
+            return parameterized((ParameterizedType) type, deriving);
+
+        if (!(type instanceof Class))
+            return UNMAPPED;
+
+        Class<?> cls = (Class<?>) type;
+
+        if (SIMPLE_TYPES.containsKey(cls))
+            return new Identity(SIMPLE_TYPES.get(cls));
+
+        if (cls.isArray())
+            return array(cls.getComponentType(), deriving);
+
+        if (cls.isEnum())
+            return new Adapter(SimpleType.STRING, value -> ((Enum<?>) value).name(), value -> enumConstant(cls, (String) value));
+
+        if (cls == AtomicInteger.class)
+            return new Adapter(SimpleType.INTEGER, value -> ((AtomicInteger) value).get(), value -> new AtomicInteger((Integer) value));
+
+        if (cls == AtomicLong.class)
+            return new Adapter(SimpleType.LONG, value -> ((AtomicLong) value).get(), value -> new AtomicLong((Long) value));
+
+        if (cls == AtomicBoolean.class)
+            return new Adapter(SimpleType.BOOLEAN, value -> ((AtomicBoolean) value).get(), value -> new AtomicBoolean((Boolean) value));
+
+        if (cls == LongAdder.class)
+            return new Adapter(SimpleType.LONG, value -> ((LongAdder) value).sum(), value -> {
+                LongAdder adder = new LongAdder();
+                adder.add((Long) value);
+                return adder;
+            });
+
+        if (cls == DoubleAdder.class)
+            return new Adapter(SimpleType.DOUBLE, value -> ((DoubleAdder) value).sum(), value -> {
+                DoubleAdder adder = new DoubleAdder();
+                adder.add((Double) value);
+                return adder;
+            });
+
+        if (isOpen(cls) || cls.isPrimitive() || cls.getName().startsWith("java.") || cls.getName().startsWith("javax."))
+            return UNMAPPED;
+
+        return composite(cls, deriving);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object enumConstant(Class<?> type, String name) {
+        return Enum.valueOf((Class<? extends Enum>) type, name);
+    }
+
+    private static OpenTypeConverter parameterized(ParameterizedType type, Set<Type> deriving) throws OpenDataException {
+        Class<?> raw = (Class<?>) type.getRawType();
+        Type[] arguments = type.getActualTypeArguments();
+
+        if (Collection.class.isAssignableFrom(raw) && arguments.length == 1)
+            return collection(raw, arguments[0], deriving);
+
+        if (Map.class.isAssignableFrom(raw) && arguments.length == 2)
+            return map(type, raw, arguments[0], arguments[1], deriving);
+
+        return UNMAPPED;
+    }
+
+    private static OpenTypeConverter array(Type componentType, Set<Type> deriving) throws OpenDataException {
+        if (componentType instanceof Class && ((Class<?>) componentType).isPrimitive() && componentType != void.class)
+            return new Identity(ArrayType.getPrimitiveArrayType(Array.newInstance((Class<?>) componentType, 0).getClass()));
+
+        OpenTypeConverter component = get(componentType, deriving);
+
+        if (component == UNMAPPED)
+            return UNMAPPED;
+
+        // Arrays of open values (e.g. strings or int[][]) are open values themselves
+        if (component instanceof Identity)
+            return new Identity(ArrayType.getArrayType(component.openType));
+
+        return new ArrayConverter(ArrayType.getArrayType(component.openType), component, rawClassOf(componentType));
+    }
+
+    private static OpenTypeConverter collection(Class<?> raw, Type elementType, Set<Type> deriving) throws OpenDataException {
+        OpenTypeConverter element = get(elementType, deriving);
+        Function<Integer, Collection<Object>> factory = collectionFactory(raw);
+
+        if (element == UNMAPPED || factory == null)
+            return UNMAPPED;
+
+        return new CollectionConverter(ArrayType.getArrayType(element.openType), element, factory);
+    }
+
+    private static Function<Integer, Collection<Object>> collectionFactory(Class<?> raw) {
+        if (raw.isAssignableFrom(ArrayList.class))
+            return ArrayList::new;
+
+        if (raw.isAssignableFrom(LinkedHashSet.class))
+            return LinkedHashSet::new;
+
+        if (raw.isAssignableFrom(TreeSet.class) && SortedSet.class.isAssignableFrom(raw))
+            return size -> new TreeSet<>();
+
+        return null;
+    }
+
+    private static OpenTypeConverter map(ParameterizedType type, Class<?> raw, Type keyType, Type valueType, Set<Type> deriving)
+            throws OpenDataException {
+        OpenTypeConverter key = get(keyType, deriving);
+        OpenTypeConverter value = get(valueType, deriving);
+        Function<Integer, Map<Object, Object>> factory = raw.isAssignableFrom(LinkedHashMap.class) ? LinkedHashMap::new
+                : raw.isAssignableFrom(TreeMap.class) && SortedMap.class.isAssignableFrom(raw) ? size -> new TreeMap<>() : null;
+
+        if (key == UNMAPPED || value == UNMAPPED || factory == null)
+            return UNMAPPED;
+
+        String name = type.getTypeName();
+        CompositeType rowType = new CompositeType(name, name, new String[] { "key", "value" }, new String[] { "key", "value" },
+                new OpenType<?>[] { key.openType, value.openType });
+        return new MapConverter(new TabularType(name, name, rowType, new String[] { "key" }), key, value, factory);
+    }
+
+    private static OpenTypeConverter composite(Class<?> type, Set<Type> deriving) throws OpenDataException, IntrospectionException {
+        List<String> names = new ArrayList<>();
+        List<OpenType<?>> types = new ArrayList<>();
+        List<OpenTypeConverter> itemConverters = new ArrayList<>();
+        List<AttributeReader> readers = new ArrayList<>();
+        List<AttributeWriter> writers = new ArrayList<>();
+
+        for (PropertyDescriptor property : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+            if (property.getReadMethod() == null)
+                continue;
+
+            OpenTypeConverter item = get(property.getReadMethod().getGenericReturnType(), deriving);
+
+            if (item == UNMAPPED)
+                return UNMAPPED;
+
+            names.add(property.getName());
+            types.add(item.openType);
+            itemConverters.add(item);
+            readers.add(Accessors.reader(property.getReadMethod()));
+            writers.add(property.getWriteMethod() == null ? null : Accessors.writer(property.getWriteMethod()));
+        }
+
+        if (names.isEmpty())
+            return UNMAPPED;
+
+        String[] itemNames = names.toArray(new String[names.size()]);
+        CompositeType compositeType = new CompositeType(type.getName(), type.getName(), itemNames, itemNames,
+                types.toArray(new OpenType<?>[types.size()]));
+        return new CompositeConverter(compositeType, type, itemNames, itemConverters.toArray(new OpenTypeConverter[itemNames.length]),
+                readers.toArray(new AttributeReader[itemNames.length]), writers.toArray(new AttributeWriter[itemNames.length]));
+    }
+
+    private static Class<?> rawClassOf(Type type) {
+        if (type instanceof Class)
+            return (Class<?>) type;
+
+        if (type instanceof ParameterizedType)
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+
+        return Array.newInstance(rawClassOf(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+    }
+
+    private static Class<?> classOf(OpenType<?> type) {
+        try {
+            return Class.forName(type.getClassName());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    OpenType<?> getOpenType() {
+        return openType;
+    }
+
+    /**
+     * @param value a non-null value of the converter's Java type
+     */
+    abstract Object toOpenValue(Object value) throws OpenDataException;
+
+    /**
+     * @param value a non-null value of the converter's open type
+     */
+    abstract Object fromOpenValue(Object value) throws OpenDataException;
+
+    private static class Identity extends OpenTypeConverter {
+
+        Identity(OpenType<?> openType) {
+            super(openType);
+        }
+
+        @Override
+        Object toOpenValue(Object value) {
+            return value;
+        }
+
+        @Override
+        Object fromOpenValue(Object value) {
+            return value;
+        }
+    }
+
+    private static class Adapter extends OpenTypeConverter {
+
+        private final Function<Object, Object> to;
+        private final Function<Object, Object> from;
+
+        Adapter(OpenType<?> openType, Function<Object, Object> to, Function<Object, Object> from) {
+            super(openType);
+            this.to = to;
+            this.from = from;
+        }
+
+        @Override
+        Object toOpenValue(Object value) {
+            return to.apply(value);
+        }
+
+        @Override
+        Object fromOpenValue(Object value) {
+            return from.apply(value);
+        }
+    }
+
+    private static class ArrayConverter extends OpenTypeConverter {
+
+        private final OpenTypeConverter component;
+        private final Class<?> openComponent;
+        private final Class<?> javaComponent;
+
+        ArrayConverter(ArrayType<?> openType, OpenTypeConverter component, Class<?> javaComponent) {
+            super(openType);
+            this.component = component;
+            this.openComponent = classOf(component.getOpenType());
+            this.javaComponent = javaComponent;
+        }
+
+        @Override
+        Object toOpenValue(Object value) throws OpenDataException {
+            return convert(value, openComponent, true);
+        }
+
+        @Override
+        Object fromOpenValue(Object value) throws OpenDataException {
+            return convert(value, javaComponent, false);
+        }
+
+        private Object convert(Object array, Class<?> targetComponent, boolean toOpen) throws OpenDataException {
+            int length = Array.getLength(array);
+            Object result = Array.newInstance(targetComponent, length);
+
+            for (int i = 0; i < length; i++) {
+                Object element = Array.get(array, i);
+
+                if (element != null)
+                    Array.set(result, i, toOpen ? component.toOpenValue(element) : component.fromOpenValue(element));
+            }
+
+            return result;
+        }
+    }
+
+    private static class CollectionConverter extends OpenTypeConverter {
+
+        private final OpenTypeConverter element;
+        private final Class<?> openElement;
+        private final Function<Integer, Collection<Object>> factory;
+
+        CollectionConverter(ArrayType<?> openType, OpenTypeConverter element, Function<Integer, Collection<Object>> factory) {
+            super(openType);
+            this.element = element;
+            this.openElement = classOf(element.getOpenType());
+            this.factory = factory;
+        }
+
+        @Override
+        Object toOpenValue(Object value) throws OpenDataException {
+            Collection<?> collection = (Collection<?>) value;
+            Object[] result = (Object[]) Array.newInstance(openElement, collection.size());
+            int i = 0;
+
+            for (Object item : collection) {
+                result[i++] = item == null ? null : element.toOpenValue(item);
+            }
+
+            return result;
+        }
+
+        @Override
+        Object fromOpenValue(Object value) throws OpenDataException {
+            Object[] array = (Object[]) value;
+            Collection<Object> result = factory.apply(array.length);
+
+            for (Object item : array) {
+                result.add(item == null ? null : element.fromOpenValue(item));
+            }
+
+            return result;
+        }
+    }
+
+    private static class MapConverter extends OpenTypeConverter {
+
+        private static final String[] ITEMS = { "key", "value" };
+        private final TabularType tabularType;
+        private final OpenTypeConverter key;
+        private final OpenTypeConverter value;
+        private final Function<Integer, Map<Object, Object>> factory;
+
+        MapConverter(TabularType openType, OpenTypeConverter key, OpenTypeConverter value, Function<Integer, Map<Object, Object>> factory) {
+            super(openType);
+            this.tabularType = openType;
+            this.key = key;
+            this.value = value;
+            this.factory = factory;
+        }
+
+        @Override
+        Object toOpenValue(Object map) throws OpenDataException {
+            TabularDataSupport result = new TabularDataSupport(tabularType, Math.max(16, ((Map<?, ?>) map).size() * 4 / 3 + 1), 0.75f);
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) map).entrySet()) {
+                Object convertedKey = entry.getKey() == null ? null : key.toOpenValue(entry.getKey());
+                Object convertedValue = entry.getValue() == null ? null : value.toOpenValue(entry.getValue());
+                result.put(new CompositeDataSupport(tabularType.getRowType(), ITEMS, new Object[] { convertedKey, convertedValue }));
+            }
+
+            return result;
+        }
+
+        @Override
+        Object fromOpenValue(Object table) throws OpenDataException {
+            Collection<?> rows = ((TabularData) table).values();
+            Map<Object, Object> result = factory.apply(rows.size());
+
+            for (Object row : rows) {
+                Object rowKey = ((CompositeData) row).get("key");
+                Object rowValue = ((CompositeData) row).get("value");
+                result.put(rowKey == null ? null : key.fromOpenValue(rowKey), rowValue == null ? null : value.fromOpenValue(rowValue));
+            }
+
+            return result;
+        }
+    }
+
+    private static class CompositeConverter extends OpenTypeConverter {
+
+        private final CompositeType compositeType;
+        private final Class<?> type;
+        private final String[] names;
+        private final OpenTypeConverter[] items;
+        private final AttributeReader[] readers;
+        private final AttributeWriter[] writers;
+
+        CompositeConverter(CompositeType openType, Class<?> type, String[] names, OpenTypeConverter[] items, AttributeReader[] readers,
+                AttributeWriter[] writers) {
+            super(openType);
+            this.compositeType = openType;
+            this.type = type;
+            this.names = names;
+            this.items = items;
+            this.readers = readers;
+            this.writers = writers;
+        }
+
+        @Override
+        Object toOpenValue(Object value) throws OpenDataException {
+            Object[] values = new Object[names.length];
+
+            for (int i = 0; i < names.length; i++) {
+                Object item = read(i, value);
+                values[i] = item == null ? null : items[i].toOpenValue(item);
+            }
+
+            return new CompositeDataSupport(compositeType, names, values);
+        }
+
+        private Object read(int i, Object value) throws OpenDataException {
+            try {
+                return readers[i].read(value);
+            } catch (Exception e) {
+                throw openDataException("Item '" + names[i] + "' of '" + type.getName() + "' could not be read.", e);
+            }
+        }
+
+        // Values are rebuilt with the no-arg constructor and the setters of the items, as the MXBean mapping does
+        @Override
+        Object fromOpenValue(Object value) throws OpenDataException {
+            CompositeData data = (CompositeData) value;
+            Object result = newInstance();
+
+            for (int i = 0; i < names.length; i++) {
+                Object item = data.get(names[i]);
+
+                if (item == null || writers[i] == null)
+                    continue;
+
+                try {
+                    writers[i].write(result, items[i].fromOpenValue(item));
+                } catch (OpenDataException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw openDataException("Item '" + names[i] + "' of '" + type.getName() + "' could not be written.", e);
+                }
+            }
+
+            return result;
+        }
+
+        private Object newInstance() throws OpenDataException {
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers()))
+                throw new OpenDataException("'" + type.getName() + "' cannot be instantiated.");
+
+            try {
+                return type.getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw openDataException("'" + type.getName() + "' could not be instantiated.", e);
+            }
+        }
+
+        private static OpenDataException openDataException(String message, Exception cause) {
+            OpenDataException exception = new OpenDataException(message);
+            exception.initCause(cause);
+            return exception;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.cenerino.jmxext.impl;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.Stream;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenMBeanAttributeInfo;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps every registered wrapper and publishes them as {@code jmxext:type=Registry}, which is registered along with the first wrapper
+ * and unregistered along with the last one. A snapshot reads the MBeans in parallel, each with a single {@code getAttributes} call,
+ * so that a remote console gets all their attributes in one round-trip instead of one per MBean. The reads run on a pool of their
+ * own, bounded by the number of processors, so that slow attributes do not hold the common pool of the application. The open type
+ * of every MBean is built the first time it is read.
+ */
+final class Registry implements RegistryMBean {
+
+    static final ObjectName OBJECT_NAME = objectName("jmxext:type=Registry");
+    private static final Logger logger = LoggerFactory.getLogger(Registry.class);
+    private static final Registry instance = new Registry();
+    private static final Map<String, SimpleType<?>> simpleTypes = simpleTypes();
+    private static final ForkJoinPool pool = createPool();
+    private final Map<ObjectName, Entry> mBeans = new ConcurrentHashMap<>();
+
+    private Registry() {
+    }
+
+    private static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, SimpleType<?>> simpleTypes() {
+        Map<String, SimpleType<?>> types = new HashMap<>();
+        Stream.of(SimpleType.VOID, SimpleType.BOOLEAN, SimpleType.CHARACTER, SimpleType.BYTE, SimpleType.SHORT, SimpleType.INTEGER,
+                SimpleType.LONG, SimpleType.FLOAT, SimpleType.DOUBLE, SimpleType.STRING, SimpleType.BIGDECIMAL, SimpleType.BIGINTEGER,
+                SimpleType.DATE, SimpleType.OBJECTNAME).forEach(type -> types.put(type.getClassName(), type));
+        types.put("boolean", SimpleType.BOOLEAN);
+        types.put("char", SimpleType.CHARACTER);
+        types.put("byte", SimpleType.BYTE);
+        types.put("short", SimpleType.SHORT);
+        types.put("int", SimpleType.INTEGER);
+        types.put("long", SimpleType.LONG);
+        types.put("float", SimpleType.FLOAT);
+        types.put("double", SimpleType.DOUBLE);
+        return types;
+    }
+
+    // Idle workers of a ForkJoinPool terminate on their own and are daemons
+    private static ForkJoinPool createPool() {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("jmxext-snapshot-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    static Registry getInstance() {
+        return instance;
+    }
+
+    static synchronized void register(MBeanServer server, ObjectName name, DynamicMBean mBean) {
+        instance.mBeans.put(name, new Entry(name, mBean));
+
+        try {
+            if (!server.isRegistered(OBJECT_NAME))
+                server.registerMBean(new StandardMBean(instance, RegistryMBean.class, false), OBJECT_NAME);
+        } catch (Exception e) {
+            logger.warn(String.format("MBean '%s' could not be registered.", OBJECT_NAME), e);
+        }
+    }
+
+    static synchronized void unregister(MBeanServer server, ObjectName name) {
+        instance.mBeans.remove(name);
+
+        try {
+            if (instance.mBeans.isEmpty() && server.isRegistered(OBJECT_NAME))
+                server.unregisterMBean(OBJECT_NAME);
+        } catch (Exception e) {
+            logger.warn(String.format("MBean '%s' could not be unregistered.", OBJECT_NAME), e);
+        }
+    }
+
+    @Override
+    public int getMBeanCount() {
+        return mBeans.size();
+    }
+
+    @Override
+    public CompositeData snapshot() {
+        return snapshot(new ArrayList<>(mBeans.values()));
+    }
+
+    @Override
+    public CompositeData snapshot(String pattern) throws MalformedObjectNameException {
+        ObjectName filter = new ObjectName(pattern);
+        return snapshot(mBeans.values().stream().filter(entry -> filter.apply(entry.name)).collect(toList()));
+    }
+
+    // An empty CompositeType cannot be built, hence no snapshot without MBeans
+    private static CompositeData snapshot(List<Entry> entries) {
+        List<CompositeData> snapshots = read(entries);
+        List<String> names = new ArrayList<>(entries.size());
+        List<OpenType<?>> types = new ArrayList<>(entries.size());
+        List<CompositeData> values = new ArrayList<>(entries.size());
+
+        // MBeans unregistered while being read, or without attributes of an open type, are left out
+        for (int i = 0; i < entries.size(); i++) {
+            if (snapshots.get(i) != null) {
+                names.add(entries.get(i).name.getCanonicalName());
+                types.add(snapshots.get(i).getCompositeType());
+                values.add(snapshots.get(i));
+            }
+        }
+
+        if (names.isEmpty())
+            return null;
+
+        try {
+            String[] items = names.toArray(new String[names.size()]);
+            CompositeType type = new CompositeType("jmxext.Snapshot", "Attributes of the MBeans registered by the extension", items, items,
+                    types.toArray(new OpenType<?>[types.size()]));
+            return new CompositeDataSupport(type, items, values.toArray());
+        } catch (OpenDataException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Parallel streams started from a task of the pool run on it instead of the common one
+    private static List<CompositeData> read(List<Entry> entries) {
+        try {
+            return pool.submit(() -> entries.parallelStream().map(Entry::read).collect(toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // A registered wrapper and the open type of its attributes, which are all read at once
+    private static class Entry {
+
+        private final ObjectName name;
+        private final DynamicMBean mBean;
+        private volatile CompositeType type;
+        private volatile String[] attributes;
+        private volatile boolean introspected;
+
+        Entry(ObjectName name, DynamicMBean mBean) {
+            this.name = name;
+            this.mBean = mBean;
+        }
+
+        CompositeData read() {
+            try {
+                CompositeType current = compositeType();
+
+                if (current == null)
+                    return null;
+
+                String[] names = attributes;
+                AttributeList values = mBean.getAttributes(names);
+                Map<String, Object> items = new HashMap<>(names.length * 2);
+
+                // Attributes that could not be read are null
+                for (Attribute attribute : values.asList()) {
+                    if (current.containsKey(attribute.getName()) && current.getType(attribute.getName()).isValue(attribute.getValue()))
+                        items.put(attribute.getName(), attribute.getValue());
+                }
+
+                for (String attribute : names) {
+                    items.putIfAbsent(attribute, null);
+                }
+
+                return new CompositeDataSupport(current, items);
+            } catch (Exception e) {
+                logger.warn(String.format("MBean '%s' could not be read.", name), e);
+                return null;
+            }
+        }
+
+        private CompositeType compositeType() throws OpenDataException {
+            if (introspected)
+                return type;
+
+            List<String> names = new ArrayList<>();
+            List<OpenType<?>> types = new ArrayList<>();
+
+            for (MBeanAttributeInfo attribute : mBean.getMBeanInfo().getAttributes()) {
+                OpenType<?> openType = attribute instanceof OpenMBeanAttributeInfo ? ((OpenMBeanAttributeInfo) attribute).getOpenType()
+                        : simpleTypes.get(attribute.getType());
+
+                if (attribute.isReadable() && openType != null && openType != SimpleType.VOID) {
+                    names.add(attribute.getName());
+                    types.add(openType);
+                }
+            }
+
+            if (!names.isEmpty()) {
+                String[] items = names.toArray(new String[names.size()]);
+                attributes = items;
+                type = new CompositeType(mBean.getMBeanInfo().getClassName(), name.getCanonicalName(), items, items,
+                        types.toArray(new OpenType<?>[types.size()]));
+            }
+
+            introspected = true;
+            return type;
+        }
+    }
+}
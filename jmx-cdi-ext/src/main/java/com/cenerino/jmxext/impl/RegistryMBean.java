@@ -0,0 +1,25 @@
+package com.cenerino.jmxext.impl;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Management interface of the {@code jmxext:type=Registry} MBean, which reads the attributes of many MBeans registered by the
+ * extension in a single call. The snapshot holds one item per MBean, named after its canonical ObjectName, whose own items are the
+ * MBean's attributes of an open type. Snapshots are {@code null} when no MBean matches.
+ * <p>
+ * The attributes are read by calling {@code getAttributes} directly on the MBeans rather than through the MBeanServer, hence
+ * {@code MBeanServerForwarder}s, interceptors and the access checks of the server do not apply to them; only the access to the
+ * snapshot operation itself is checked.
+ */
+public interface RegistryMBean {
+
+    int getMBeanCount();
+
+    CompositeData snapshot();
+
+    /**
+     * @param pattern ObjectName pattern the MBeans must match, e.g. {@code com.acme:*}
+     */
+    CompositeData snapshot(String pattern) throws MalformedObjectNameException;
+}
@@ -0,0 +1,30 @@
+package com.cenerino.jmxext.impl;
+
+import java.io.Serializable;
+
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+
+import com.cenerino.jmxext.Timed;
+
+/**
+ * Records the latency of {@link Timed} methods in the histogram of the intercepted method. Recording does not allocate.
+ */
+@Timed
+@Interceptor
+public class TimedInterceptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @AroundInvoke
+    Object time(InvocationContext context) throws Exception {
+        long start = System.nanoTime();
+
+        try {
+            return context.proceed();
+        } finally {
+            MethodTimers.of(context.getMethod()).record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.cenerino.jmxext.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count that can be incremented and decremented concurrently. Updates are striped across cells, so that threads updating the same
+ * counter do not contend with each other; reads sum the cells.
+ */
+public class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void decrement() {
+        count.decrement();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,10 @@
+package com.cenerino.jmxext.metrics;
+
+/**
+ * Value computed when it is read, e.g. {@code private final Gauge queueSize = queue::size;}.
+ */
+@FunctionalInterface
+public interface Gauge {
+
+    long getValue();
+}
@@ -0,0 +1,115 @@
+package com.cenerino.jmxext.metrics;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate of events: the mean rate since the meter was created and exponentially weighted moving averages over 1, 5 and 15 minutes,
+ * in events per second. Marking an event only updates striped counters; the averages are brought up to date every 5 seconds by
+ * whichever thread first notices that they are due, either when marking or reading.
+ */
+public class Meter {
+
+    private static final long TICK_INTERVAL = SECONDS.toNanos(5);
+    private final LongSupplier clock;
+    private final long startTime;
+    private final AtomicLong lastTick;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder uncounted = new LongAdder();
+    private final MovingAverage oneMinuteRate = new MovingAverage(1);
+    private final MovingAverage fiveMinuteRate = new MovingAverage(5);
+    private final MovingAverage fifteenMinuteRate = new MovingAverage(15);
+
+    public Meter() {
+        this(System::nanoTime);
+    }
+
+    Meter(LongSupplier clock) {
+        this.clock = clock;
+        this.startTime = clock.getAsLong();
+        this.lastTick = new AtomicLong(startTime);
+    }
+
+    public void mark() {
+        mark(1);
+    }
+
+    public void mark(long events) {
+        tickIfNecessary();
+        count.add(events);
+        uncounted.add(events);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanRate() {
+        long elapsed = clock.getAsLong() - startTime;
+        return elapsed <= 0 ? 0 : getCount() / (double) elapsed * SECONDS.toNanos(1);
+    }
+
+    public double getOneMinuteRate() {
+        tickIfNecessary();
+        return oneMinuteRate.getRate();
+    }
+
+    public double getFiveMinuteRate() {
+        tickIfNecessary();
+        return fiveMinuteRate.getRate();
+    }
+
+    public double getFifteenMinuteRate() {
+        tickIfNecessary();
+        return fifteenMinuteRate.getRate();
+    }
+
+    // The events counted since the last tick go into the first tick that is due; any other tick missed meanwhile decays the averages
+    private void tickIfNecessary() {
+        long last = lastTick.get();
+        long ticks = (clock.getAsLong() - last) / TICK_INTERVAL;
+
+        if (ticks <= 0 || !lastTick.compareAndSet(last, last + ticks * TICK_INTERVAL))
+            return;
+
+        long events = uncounted.sumThenReset();
+
+        for (long i = 0; i < ticks; i++) {
+            oneMinuteRate.tick(events);
+            fiveMinuteRate.tick(events);
+            fifteenMinuteRate.tick(events);
+            events = 0;
+        }
+    }
+
+    // Only updated by the thread that wins the tick, so its rate needs visibility but no atomicity
+    private static class MovingAverage {
+
+        private final double alpha;
+        private volatile double rate;
+        private volatile boolean initialized;
+
+        MovingAverage(int minutes) {
+            this.alpha = 1 - Math.exp(-(double) TICK_INTERVAL / MINUTES.toNanos(minutes));
+        }
+
+        void tick(long events) {
+            double instantRate = events / (double) TICK_INTERVAL;
+
+            if (initialized) {
+                rate += alpha * (instantRate - rate);
+            } else {
+                rate = instantRate;
+                initialized = true;
+            }
+        }
+
+        double getRate() {
+            return rate * SECONDS.toNanos(1);
+        }
+    }
+}
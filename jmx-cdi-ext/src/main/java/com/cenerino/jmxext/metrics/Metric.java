@@ -0,0 +1,25 @@
+package com.cenerino.jmxext.metrics;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Publishes a {@link Counter}, {@link Gauge} or {@link Meter} field of an {@code @MBean} bean as attributes of its MBean. The
+ * attributes are read straight from the metric object, without calling the bean. A counter or gauge is published as a single
+ * {@code long} attribute; a meter as {@code <name>.count}, {@code .meanRate}, {@code .oneMinuteRate}, {@code .fiveMinuteRate} and
+ * {@code .fifteenMinuteRate}, in events per second. The metrics are those of the latest instance of the bean that was created, so
+ * they are meant for application scoped beans.
+ */
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface Metric {
+
+    /**
+     * Name of the attribute. Defaults to the name of the field.
+     */
+    String name() default EMPTY;
+}
@@ -0,0 +1,7 @@
+package com.cenerino.jmxext.spi;
+
+@FunctionalInterface
+public interface AttributeReader {
+
+    Object read(Object bean) throws Exception;
+}
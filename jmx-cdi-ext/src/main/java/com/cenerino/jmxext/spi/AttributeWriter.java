@@ -0,0 +1,7 @@
+package com.cenerino.jmxext.spi;
+
+@FunctionalInterface
+public interface AttributeWriter {
+
+    void write(Object bean, Object value) throws Exception;
+}
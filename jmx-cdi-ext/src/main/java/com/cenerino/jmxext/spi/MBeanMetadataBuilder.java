@@ -0,0 +1,29 @@
+package com.cenerino.jmxext.spi;
+
+public interface MBeanMetadataBuilder {
+
+    /**
+     * @param reader accessor for the attribute value, or {@code null} if the attribute is write-only
+     * @param writer mutator for the attribute value, or {@code null} if the attribute is read-only
+     */
+    default void attribute(String name, Class<?> type, boolean is, AttributeReader reader, AttributeWriter writer) {
+        attribute(name, type, is, reader, writer, 0);
+    }
+
+    /**
+     * @param cacheTtlMillis time-to-live of values read through {@code reader}, or {@code 0} if they are not cached
+     */
+    void attribute(String name, Class<?> type, boolean is, AttributeReader reader, AttributeWriter writer, long cacheTtlMillis);
+
+    /**
+     * Samples the (previously described) attribute in the background at the given interval, instead of reading it on every call.
+     */
+    void sampled(String name, long intervalMillis);
+
+    /**
+     * Emits an attribute change notification when the value of the (previously described) attribute changes.
+     */
+    void watched(String name);
+
+    void operation(String name, Class<?> returnType, Class<?>[] parameterTypes, OperationInvoker invoker);
+}
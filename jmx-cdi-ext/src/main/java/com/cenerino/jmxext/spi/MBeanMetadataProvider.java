@@ -0,0 +1,13 @@
+package com.cenerino.jmxext.spi;
+
+/**
+ * Describes the attributes and operations of an {@code @MBean} class without runtime introspection. Implementations are generated
+ * at build time by the {@code jmx-cdi-ext-processor} module, named after the binary name of the bean class followed by
+ * {@value #SUFFIX}, and must have a public no-arg constructor.
+ */
+public interface MBeanMetadataProvider {
+
+    String SUFFIX = "$$JmxMetadata";
+
+    void describe(MBeanMetadataBuilder builder);
+}
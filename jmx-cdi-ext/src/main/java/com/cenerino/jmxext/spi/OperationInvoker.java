@@ -0,0 +1,7 @@
+package com.cenerino.jmxext.spi;
+
+@FunctionalInterface
+public interface OperationInvoker {
+
+    Object invoke(Object bean, Object[] args) throws Exception;
+}
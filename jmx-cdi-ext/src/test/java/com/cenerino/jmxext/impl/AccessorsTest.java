@@ -0,0 +1,164 @@
+package com.cenerino.jmxext.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import com.cenerino.jmxext.spi.AttributeReader;
+
+public class AccessorsTest {
+
+    @Test
+    public void shouldReadAndWriteThroughPublicMethods() throws Exception {
+        Gauge gauge = new Gauge();
+
+        Accessors.writer(Gauge.class.getMethod("setLevel", int.class)).write(gauge, 42);
+
+        assertThat(Accessors.reader(Gauge.class.getMethod("getLevel")).read(gauge)).isEqualTo(42);
+    }
+
+    @Test
+    public void shouldReadAndWriteThroughMethodsOfNonPublicClass() throws Exception {
+        Hidden hidden = new Hidden();
+
+        Accessors.writer(Hidden.class.getMethod("setLabel", String.class)).write(hidden, "secret");
+
+        assertThat(Accessors.reader(Hidden.class.getMethod("getLabel")).read(hidden)).isEqualTo("secret");
+    }
+
+    @Test
+    public void shouldLendHandleOfGetterWideningItsReturnType() throws Throwable {
+        Gauge gauge = new Gauge();
+        gauge.setLevel(42);
+        AttributeReader reader = Accessors.reader(Gauge.class.getMethod("getLevel"));
+
+        assertThat(reader).isInstanceOf(Accessors.HandleReader.class);
+        assertThat((long) ((Accessors.HandleReader) reader).handle(long.class).invokeExact((Object) gauge)).isEqualTo(42L);
+        assertThat(Accessors.reader(Hidden.class.getMethod("getLabel"))).isNotInstanceOf(Accessors.HandleReader.class);
+    }
+
+    @Test
+    public void shouldInvokeInstanceAndStaticMethods() throws Exception {
+        Gauge gauge = new Gauge();
+        gauge.setLevel(5);
+
+        Object sum = Accessors.invoker(Gauge.class.getMethod("add", int.class)).invoke(gauge, new Object[] { 3 });
+        Object max = Accessors.invoker(Gauge.class.getMethod("max", long.class, long.class)).invoke(null, new Object[] { 3L, 7L });
+        Object level = Accessors.invoker(Gauge.class.getMethod("getLevel")).invoke(gauge, null);
+
+        assertThat(sum).isEqualTo(8);
+        assertThat(max).isEqualTo(7L);
+        assertThat(level).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldWidenPrimitiveArguments() throws Exception {
+        Object max = Accessors.invoker(Gauge.class.getMethod("max", long.class, long.class)).invoke(null, new Object[] { 3, 7 });
+
+        assertThat(max).isEqualTo(7L);
+    }
+
+    @Test
+    public void shouldReportFailureOfTargetAsInvocationTargetException() throws Exception {
+        assertFailsWithCause(Gauge.class.getMethod("fail"), IllegalStateException.class);
+        assertFailsWithCause(Hidden.class.getMethod("fail"), IllegalStateException.class);
+    }
+
+    @Test
+    public void shouldPropagateErrorOfTarget() throws Exception {
+        assertErrorPropagates(Gauge.class.getMethod("exhaust"));
+        assertErrorPropagates(Hidden.class.getMethod("exhaust"));
+    }
+
+    @Test
+    public void shouldReportIncompatibleValueAsInvocationTargetException() throws Exception {
+        Method setter = Gauge.class.getMethod("setLevel", int.class);
+
+        try {
+            Accessors.writer(setter).write(new Gauge(), "high");
+        } catch (InvocationTargetException e) {
+            assertThat(e.getCause()).isInstanceOf(ClassCastException.class);
+            return;
+        }
+
+        throw new AssertionError("Incompatible value should not be accepted.");
+    }
+
+    private static void assertFailsWithCause(Method method, Class<? extends Throwable> cause) throws Exception {
+        Object target = method.getDeclaringClass().newInstance();
+
+        try {
+            Accessors.invoker(method).invoke(target, new Object[] {});
+        } catch (InvocationTargetException e) {
+            assertThat(e.getCause()).isInstanceOf(cause);
+            return;
+        }
+
+        throw new AssertionError("Invocation of " + method + " should have failed.");
+    }
+
+    private static void assertErrorPropagates(Method method) throws Exception {
+        Object target = method.getDeclaringClass().newInstance();
+
+        try {
+            Accessors.invoker(method).invoke(target, new Object[] {});
+        } catch (StackOverflowError e) {
+            return;
+        }
+
+        throw new AssertionError("Invocation of " + method + " should have thrown the error of the target.");
+    }
+
+    public static class Gauge {
+
+        private int level;
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public int add(int delta) {
+            return level + delta;
+        }
+
+        public static long max(long n1, long n2) {
+            return Math.max(n1, n2);
+        }
+
+        public void fail() {
+            throw new IllegalStateException();
+        }
+
+        public void exhaust() {
+            throw new StackOverflowError();
+        }
+    }
+
+    static class Hidden {
+
+        private String label;
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public void fail() {
+            throw new IllegalStateException();
+        }
+
+        public void exhaust() {
+            throw new StackOverflowError();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.cenerino.jmxext.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.notNull;
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.internal.util.collections.Sets;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.cenerino.jmxext.MBean;
+
+/**
+ * Guards the hot paths of {@link DynamicMBeanWrapper}: after a warm-up, each path is called many times in a row and the bytes
+ * allocated by the thread, as reported by the JVM, are divided by the number of calls. Allocations made once (e.g. by
+ * deoptimizations) are thus averaged out, while any allocation made on every call beyond the result itself exceeds the budget.
+ * Values are outside the cache of boxed integers, so that the boxing of results, which {@code DynamicMBean} requires, is counted.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AllocationTest {
+
+    private static final int WARM_UP_CALLS = 50_000;
+    private static final int MEASURED_CALLS = 100_000;
+    // The boxed result: an Integer or a Long takes 16 bytes with compressed oops, 24 without
+    private static final long BOXED_RESULT_BUDGET = 24;
+    // The AttributeList, its array, and an Attribute and a boxed value per attribute, with some room for the layout of other JVMs
+    private static final long GET_ATTRIBUTES_BUDGET = 200;
+
+    @Mock
+    private Bean bean;
+
+    @Mock
+    private BeanManager beanManager;
+
+    private DynamicMBeanWrapper mBean;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(threadMXBean() != null && threadMXBean().isThreadAllocatedMemorySupported());
+        threadMXBean().setThreadAllocatedMemoryEnabled(true);
+
+        Sensor sensor = new Sensor();
+        Set<Bean<?>> beans = Sets.newSet(bean);
+        given(beanManager.isQualifier(MBean.class)).willReturn(true);
+        given(beanManager.getBeans(notNull(Class.class), notNull(MBean.class))).willReturn(beans);
+        given(beanManager.resolve(beans)).willReturn(bean);
+        given(beanManager.createCreationalContext(bean)).willReturn(mock(CreationalContext.class));
+        given(beanManager.isNormalScope(any())).willReturn(true);
+        given(bean.getBeanClass()).willReturn(Sensor.class);
+        given(beanManager.getReference(eq(bean), eq(Sensor.class), notNull(CreationalContext.class))).willReturn(sensor);
+        mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+    }
+
+    @Test
+    public void shouldOnlyAllocateBoxedResultToReadPrimitiveAttribute() throws Exception {
+        assertThat(mBean.getAttribute("level")).isEqualTo(70_000);
+        assertThat(bytesPerCall(() -> mBean.getAttribute("level"))).isLessThanOrEqualTo(BOXED_RESULT_BUDGET);
+        assertThat(bytesPerCall(() -> mBean.getAttribute("total"))).isLessThanOrEqualTo(BOXED_RESULT_BUDGET);
+    }
+
+    @Test
+    public void shouldOnlyAllocateResultToReadPrimitiveAttributes() throws Exception {
+        String[] names = { "level", "total" };
+
+        assertThat(bytesPerCall(() -> mBean.getAttributes(names))).isLessThanOrEqualTo(GET_ATTRIBUTES_BUDGET);
+    }
+
+    @Test
+    public void shouldOnlyAllocateBoxedResultToInvokeOperationWithPrimitiveResult() throws Exception {
+        Object[] args = { 2 };
+        String[] signature = { int.class.getName() };
+
+        assertThat(mBean.invoke("add", args, signature)).isEqualTo(70_002);
+        assertThat(bytesPerCall(() -> mBean.invoke("add", args, signature))).isLessThanOrEqualTo(BOXED_RESULT_BUDGET);
+    }
+
+    private static long bytesPerCall(Callable<?> call) throws Exception {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            call.call();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean().getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.call();
+        }
+
+        return (threadMXBean().getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+    }
+
+    // Dummy class used by the tests above. Public, so that it is reached through method handles as application beans usually are.
+
+    @MBean
+    public static class Sensor {
+
+        private int level = 70_000;
+        private long total = 100_000_000_000L;
+
+        public int getLevel() {
+            return level;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public int add(int value) {
+            return level + value;
+        }
+    }
+}
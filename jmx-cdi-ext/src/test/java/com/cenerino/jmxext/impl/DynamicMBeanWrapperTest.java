@@ -3,22 +3,55 @@ package com.cenerino.jmxext.impl;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.notNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.beans.IntrospectionException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Singleton;
 import javax.management.Attribute;
+import javax.management.AttributeChangeNotification;
 import javax.management.AttributeList;
 import javax.management.AttributeNotFoundException;
+import javax.management.Descriptor;
 import javax.management.InvalidAttributeValueException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
 import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.Notification;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.OpenMBeanAttributeInfo;
+import javax.management.openmbean.TabularData;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -27,7 +60,16 @@ import org.mockito.Mock;
 import org.mockito.internal.util.collections.Sets;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.cenerino.jmxext.CachedAttribute;
+import com.cenerino.jmxext.ConsistentAttributes;
+import com.cenerino.jmxext.ForwardEvents;
 import com.cenerino.jmxext.MBean;
+import com.cenerino.jmxext.Sampled;
+import com.cenerino.jmxext.Timed;
+import com.cenerino.jmxext.Watched;
+import com.cenerino.jmxext.metrics.Counter;
+import com.cenerino.jmxext.metrics.Meter;
+import com.cenerino.jmxext.metrics.Metric;
 
 @SuppressWarnings({ "unused", "rawtypes", "unchecked" })
 @RunWith(MockitoJUnitRunner.class)
@@ -46,6 +88,8 @@ public class DynamicMBeanWrapperTest {
         given(beanManager.getBeans(notNull(Class.class), notNull(MBean.class))).willReturn(beans);
         given(beanManager.resolve(beans)).willReturn(bean);
         given(beanManager.createCreationalContext(bean)).willReturn(mock(CreationalContext.class));
+        given(bean.getScope()).willReturn(ApplicationScoped.class);
+        given(beanManager.isNormalScope(ApplicationScoped.class)).willReturn(true);
     }
 
     @Test
@@ -101,7 +145,8 @@ public class DynamicMBeanWrapperTest {
 
         assertThat(mBeanInfo.getAttributes()).hasSize(1);
         assertThat(mBeanInfo.getAttributes()[0].getName()).isEqualTo("president");
-        assertThat(mBeanInfo.getAttributes()[0].getType()).isEqualTo(Person.class.getName());
+        assertThat(mBeanInfo.getAttributes()[0].getType()).isEqualTo(CompositeData.class.getName());
+        assertThat(mBeanInfo.getAttributes()[0].getDescriptor().getFieldValue("originalType")).isEqualTo(Person.class.getName());
         assertThat(mBeanInfo.getAttributes()[0].isReadable()).isTrue();
         assertThat(mBeanInfo.getAttributes()[0].isWritable()).isFalse();
         assertThat(mBeanInfo.getAttributes()[0].isIs()).isFalse();
@@ -158,7 +203,8 @@ public class DynamicMBeanWrapperTest {
         assertThat(mBeanInfo.getAttributes()[0].isIs()).isFalse();
 
         assertThat(mBeanInfo.getAttributes()[1].getName()).isEqualTo("president");
-        assertThat(mBeanInfo.getAttributes()[1].getType()).isEqualTo(Person.class.getName());
+        assertThat(mBeanInfo.getAttributes()[1].getType()).isEqualTo(CompositeData.class.getName());
+        assertThat(mBeanInfo.getAttributes()[1].getDescriptor().getFieldValue("originalType")).isEqualTo(Person.class.getName());
         assertThat(mBeanInfo.getAttributes()[1].isReadable()).isTrue();
         assertThat(mBeanInfo.getAttributes()[1].isWritable()).isFalse();
         assertThat(mBeanInfo.getAttributes()[1].isIs()).isFalse();
@@ -242,6 +288,417 @@ public class DynamicMBeanWrapperTest {
         assertThat(attributes.get(0).getValue()).isEqualTo("Pirlo");
     }
 
+    @Test
+    public void shouldResolveReferenceOnlyOnceWhenReadingMultipleAttributes() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        given(bean.getScope()).willReturn(Dependent.class);
+
+        DynamicMBeanWrapper.wrap(bean, beanManager).getAttributes(new String[] { "name", "age" });
+
+        verify(beanManager, times(1)).getReference(eq(bean), eq(Player.class), notNull(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldReadMultipleAttributesWithinSnapshotOfConsistentBean() throws Exception {
+        Pool pool = new Pool();
+        configureBeanManagerToReturn(pool);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        List<Attribute> attributes = mBean.getAttributes(new String[] { "active", "idle" }).asList();
+
+        assertThat(attributes).hasSize(2);
+        assertThat(attributes.get(0).getValue()).isEqualTo(3);
+        assertThat(attributes.get(1).getValue()).isEqualTo(7);
+        assertThat(pool.snapshots).isEqualTo(1);
+        assertThat(mBean.getMBeanInfo().getOperations()).extracting("name").containsOnly("getActive", "getIdle");
+    }
+
+    @Test
+    public void shouldServeCachedAttributeUntilItExpires() throws Exception {
+        Inventory inventory = new Inventory();
+        configureBeanManagerToReturn(inventory);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.getAttribute("size");
+        mBean.getAttributes(new String[] { "size" });
+        mBean.getAttribute("recent");
+        Thread.sleep(20);
+        mBean.getAttribute("recent");
+
+        assertThat(inventory.sizeComputations.get()).isEqualTo(1);
+        assertThat(inventory.recentComputations.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldComputeCachedAttributeOnceForConcurrentReaders() throws Exception {
+        Inventory inventory = new Inventory();
+        configureBeanManagerToReturn(inventory);
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            for (Future<Object> result : executor.invokeAll(Collections.nCopies(32, () -> mBean.getAttribute("size")))) {
+                assertThat(result.get()).isEqualTo(42);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(inventory.sizeComputations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldDiscardCachedValueWhenAttributeIsSet() throws Exception {
+        configureBeanManagerToReturn(new Inventory());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.getAttribute("size");
+        mBean.setAttribute(new Attribute("size", 7));
+
+        assertThat(mBean.getAttribute("size")).isEqualTo(7);
+    }
+
+    @Test
+    public void shouldDescribeCacheOfCachedAttributes() throws Exception {
+        configureBeanManagerToReturn(new Inventory());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.getAttribute("size");
+        mBean.getAttribute("size");
+        mBean.getAttribute("size");
+        Descriptor descriptor = Stream.of(mBean.getMBeanInfo().getAttributes()).filter(attr -> attr.getName().equals("size")).findFirst().get()
+                .getDescriptor();
+
+        assertThat(descriptor.getFieldValue("cacheTtlMillis")).isEqualTo(60000L);
+        assertThat(descriptor.getFieldValue("cacheHits")).isEqualTo(2L);
+        assertThat(descriptor.getFieldValue("cacheMisses")).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldServeSampledAttributeWithoutReadingBean() throws Exception {
+        Gauge gauge = new Gauge();
+        configureBeanManagerToReturn(gauge);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.postRegister(true);
+
+        try {
+            awaitSamples(gauge, 1);
+
+            assertThat(mBean.getAttribute("level")).isEqualTo(5);
+            assertThat(mBean.getAttributes(new String[] { "level" }).asList()).extracting("value").containsExactly(5);
+            assertThat(gauge.callerReads.get()).isZero();
+        } finally {
+            mBean.postDeregister();
+        }
+    }
+
+    @Test
+    public void shouldReadSampledAttributeFromBeanUntilFirstSample() throws Exception {
+        Tank tank = new Tank();
+        configureBeanManagerToReturn(tank);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.postRegister(true);
+
+        try {
+            assertThat(mBean.getAttribute("volume")).isEqualTo(100);
+        } finally {
+            mBean.postDeregister();
+        }
+    }
+
+    @Test
+    public void shouldNotSampleAttributesOfRequestScopedBean() throws Exception {
+        Gauge gauge = new Gauge();
+        configureBeanManagerToReturn(gauge);
+        given(bean.getScope()).willReturn(RequestScoped.class);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.postRegister(true);
+
+        try {
+            Thread.sleep(50);
+
+            assertThat(gauge.samplerReads.get()).isZero();
+            assertThat(mBean.getAttribute("level")).isEqualTo(5);
+            assertThat(gauge.callerReads.get()).isEqualTo(1);
+        } finally {
+            mBean.postDeregister();
+        }
+    }
+
+    @Test
+    public void shouldOnlySampleWhileRegistered() throws Exception {
+        Gauge gauge = new Gauge();
+        configureBeanManagerToReturn(gauge);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        Thread.sleep(50);
+        assertThat(gauge.samplerReads.get()).isZero();
+
+        mBean.postRegister(true);
+        awaitSamples(gauge, 2);
+        mBean.postDeregister();
+        Thread.sleep(30);
+        int samplerReads = gauge.samplerReads.get();
+        Thread.sleep(50);
+
+        assertThat(gauge.samplerReads.get()).isEqualTo(samplerReads);
+        assertThat(gauge.callerReads.get()).isZero();
+    }
+
+    @Test
+    public void shouldSampleEveryReadableAttributeOfSampledClass() throws Exception {
+        configureBeanManagerToReturn(new Tank());
+
+        MBeanInfo mBeanInfo = DynamicMBeanWrapper.wrap(bean, beanManager).getMBeanInfo();
+
+        assertThat(Stream.of(mBeanInfo.getAttributes()).map(attr -> attr.getDescriptor().getFieldValue("samplingIntervalMillis")).toArray())
+                .containsOnly(3600000L, 1000L, null);
+    }
+
+    @Test
+    public void shouldPublishAccessStatisticsWhenEnabled() throws Exception {
+        configureBeanManagerToReturn(new Connections());
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Connections");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+        server.setAttribute(AccessStatistics.OBJECT_NAME, new Attribute("Enabled", true));
+
+        try {
+            server.getAttribute(name, "minSize");
+            server.getAttributes(name, new String[] { "minSize", "maxSize" });
+            server.invoke(name, "setMaxSize", new Object[] { 0 }, new String[] { "int" });
+        } catch (MBeanException e) {
+            // expected, recorded as an error
+        } finally {
+            server.setAttribute(AccessStatistics.OBJECT_NAME, new Attribute("Enabled", false));
+        }
+
+        CompositeData[] statistics = (CompositeData[]) server.getAttribute(AccessStatistics.OBJECT_NAME, "Statistics");
+        server.unregisterMBean(name);
+
+        assertThat(statistics).extracting(entry -> entry.get("kind") + " " + entry.get("member") + " " + entry.get("calls") + " "
+                + entry.get("errors")).containsOnly("read minSize 2 0", "read maxSize 1 0", "invoke setMaxSize(int) 1 1");
+        assertThat(statistics).extracting(entry -> entry.get("objectName")).containsOnly("test:type=Connections");
+        assertThat(server.isRegistered(AccessStatistics.OBJECT_NAME)).isFalse();
+    }
+
+    @Test
+    public void shouldKeepAccessStatisticsOfEachServer() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MBeanServer otherServer = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Player");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+        otherServer.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+        server.setAttribute(AccessStatistics.OBJECT_NAME, new Attribute("Enabled", true));
+
+        server.getAttribute(name, "name");
+        otherServer.getAttribute(name, "name");
+        CompositeData[] statistics = (CompositeData[]) server.getAttribute(AccessStatistics.OBJECT_NAME, "Statistics");
+        CompositeData[] otherStatistics = (CompositeData[]) otherServer.getAttribute(AccessStatistics.OBJECT_NAME, "Statistics");
+        server.unregisterMBean(name);
+        otherServer.unregisterMBean(name);
+
+        assertThat(statistics).extracting(entry -> entry.get("member") + " " + entry.get("calls")).containsOnly("name 1");
+        assertThat(otherStatistics).isEmpty();
+    }
+
+    @Test
+    public void shouldNotRecordAccessStatisticsWhenDisabled() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Player");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+
+        server.getAttribute(name, "name");
+        CompositeData[] statistics = (CompositeData[]) server.getAttribute(AccessStatistics.OBJECT_NAME, "Statistics");
+        server.unregisterMBean(name);
+
+        assertThat(statistics).isEmpty();
+    }
+
+    @Test
+    public void shouldDescribeNotificationTypesAndStatistics() throws Exception {
+        configureBeanManagerToReturn(new Doorbell());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        MBeanNotificationInfo[] notifications = mBean.getNotificationInfo();
+
+        assertThat(notifications).hasSize(1);
+        assertThat(notifications[0].getNotifTypes()).containsExactly("doorbell.rang", "doorbell.muted");
+        assertThat(mBean.getMBeanInfo().getNotifications()).isEqualTo(notifications);
+        assertThat(Stream.of(mBean.getMBeanInfo().getAttributes()).map(MBeanAttributeInfo::getName).toArray()).containsExactly(
+                "notifications.sent", "notifications.coalesced", "notifications.dropped");
+    }
+
+    @Test
+    public void shouldDescribeForwardedEventTypesAndStatistics() throws Exception {
+        configureBeanManagerToReturn(new Breaker());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        MBeanNotificationInfo[] notifications = mBean.getNotificationInfo();
+
+        assertThat(notifications).hasSize(1);
+        assertThat(notifications[0].getNotifTypes()).containsExactly(Integer.class.getName());
+        assertThat(Stream.of(mBean.getMBeanInfo().getAttributes()).map(MBeanAttributeInfo::getName).toArray()).containsExactly(
+                "events.forwarded", "events.coalesced", "events.dropped");
+    }
+
+    @Test
+    public void shouldSendNotificationsPublishedForBeanToListenersOfRegisteredMBean() throws Exception {
+        configureBeanManagerToReturn(new Doorbell());
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Doorbell");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        server.addNotificationListener(name, (notification, handback) -> received.add(notification), null, null);
+
+        try {
+            NotificationChannel.of(Doorbell.class).publish("doorbell.rang", "ding");
+            Notification notification = received.poll(5, TimeUnit.SECONDS);
+
+            assertThat(notification.getType()).isEqualTo("doorbell.rang");
+            assertThat(notification.getSource()).isEqualTo(name);
+            assertThat(server.getAttribute(name, "notifications.sent")).isEqualTo(1L);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void shouldDescribeAttributeChangesOfWatchedAttributes() throws Exception {
+        configureBeanManagerToReturn(new Valve());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        MBeanNotificationInfo[] notifications = mBean.getNotificationInfo();
+
+        assertThat(notifications).hasSize(1);
+        assertThat(notifications[0].getNotifTypes()).containsExactly(AttributeChangeNotification.ATTRIBUTE_CHANGE);
+        assertThat(notifications[0].getName()).isEqualTo(AttributeChangeNotification.class.getName());
+        assertThat(Stream.of(mBean.getMBeanInfo().getAttributes()).filter(info -> Boolean.TRUE.equals(info.getDescriptor().getFieldValue("watched")))
+                .map(MBeanAttributeInfo::getName).toArray()).containsOnly("open", "pressure", "label");
+    }
+
+    @Test
+    public void shouldNotifyChangesOfWatchedAttributes() throws Exception {
+        Valve valve = new Valve();
+        configureBeanManagerToReturn(valve);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Valve");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        server.addNotificationListener(name, (notification, handback) -> received.add(notification), null, null);
+
+        try {
+            // Written through the MBean: notified right away
+            server.setAttribute(name, new Attribute("pressure", 3));
+            AttributeChangeNotification written = (AttributeChangeNotification) received.poll(5, TimeUnit.SECONDS);
+
+            assertThat(written.getSource()).isEqualTo(name);
+            assertThat(written.getAttributeName()).isEqualTo("pressure");
+            assertThat(written.getAttributeType()).isEqualTo(int.class.getName());
+            assertThat(written.getOldValue()).isEqualTo(0);
+            assertThat(written.getNewValue()).isEqualTo(3);
+
+            // Changed on the bean: notified by the next check
+            valve.setPressure(5);
+            AttributeChangeNotification changed = (AttributeChangeNotification) received.poll(5, TimeUnit.SECONDS);
+
+            assertThat(changed.getAttributeName()).isEqualTo("pressure");
+            assertThat(changed.getOldValue()).isEqualTo(3);
+            assertThat(changed.getNewValue()).isEqualTo(5);
+            assertThat(changed.getSequenceNumber()).isGreaterThan(written.getSequenceNumber());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void shouldNotWatchAttributesOfSessionScopedBean() throws Exception {
+        configureBeanManagerToReturn(new Valve());
+        given(bean.getScope()).willReturn(SessionScoped.class);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Valve");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        server.addNotificationListener(name, (notification, handback) -> received.add(notification), null, null);
+
+        try {
+            server.setAttribute(name, new Attribute("pressure", 3));
+
+            assertThat(received.poll(100, TimeUnit.MILLISECONDS)).isNull();
+            assertThat(server.getAttribute(name, "pressure")).isEqualTo(3);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void shouldNotifyChangesOfWatchedAttributesOfAnyType() throws Exception {
+        Valve valve = new Valve();
+        configureBeanManagerToReturn(valve);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Valve");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        server.addNotificationListener(name, (notification, handback) -> received.add(notification), null, null);
+
+        try {
+            server.setAttribute(name, new Attribute("open", true));
+            server.setAttribute(name, new Attribute("label", "main"));
+            server.setAttribute(name, new Attribute("label", new String("main")));
+            AttributeChangeNotification open = (AttributeChangeNotification) received.poll(5, TimeUnit.SECONDS);
+            AttributeChangeNotification label = (AttributeChangeNotification) received.poll(5, TimeUnit.SECONDS);
+
+            assertThat(open.getAttributeName()).isEqualTo("open");
+            assertThat(open.getOldValue()).isEqualTo(false);
+            assertThat(open.getNewValue()).isEqualTo(true);
+            assertThat(label.getAttributeName()).isEqualTo("label");
+            assertThat(label.getOldValue()).isNull();
+            assertThat(label.getNewValue()).isEqualTo("main");
+            assertThat(received.poll(50, TimeUnit.MILLISECONDS)).isNull();
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void shouldReturnOpenValuesOfAttributesOfComplexTypes() throws Exception {
+        Garage garage = new Garage();
+        garage.getCar().setColor("red");
+        garage.getSpots().put("A1", 2);
+        garage.getCount().set(5);
+        configureBeanManagerToReturn(garage);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+
+        assertThat(((CompositeData) mBean.getAttribute("car")).get("color")).isEqualTo("red");
+        assertThat(((TabularData) mBean.getAttribute("spots")).get(new Object[] { "A1" }).get("value")).isEqualTo(2);
+        assertThat(mBean.getAttribute("count")).isEqualTo(5);
+        assertThat(mBean.getAttribute("state")).isEqualTo("OPEN");
+        assertThat(Stream.of(mBean.getMBeanInfo().getAttributes()).allMatch(info -> info instanceof OpenMBeanAttributeInfo)).isTrue();
+    }
+
+    @Test
+    public void shouldSetAttributesOfComplexTypesFromOpenValues() throws Exception {
+        Garage garage = new Garage();
+        configureBeanManagerToReturn(garage);
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        CompositeData car = (CompositeData) mBean.getAttribute("car");
+        CompositeData blue = new CompositeDataSupport(car.getCompositeType(), new String[] { "color" }, new Object[] { "blue" });
+
+        mBean.setAttribute(new Attribute("car", blue));
+        AttributeList result = mBean.setAttributes(new AttributeList(asList(new Attribute("state", "CLOSED"), new Attribute("count", 3))));
+
+        assertThat(result).hasSize(2);
+        assertThat(garage.getCar().getColor()).isEqualTo("blue");
+        assertThat(garage.getState()).isEqualTo(Garage.State.CLOSED);
+        assertThat(garage.getCount().get()).isEqualTo(3);
+    }
+
     @Test
     public void shouldSetAttributeValue() throws Exception {
         configureBeanManagerToReturn(new Player());
@@ -312,6 +769,136 @@ public class DynamicMBeanWrapperTest {
         assertThat(returnedAttributes.get(0).getValue()).isEqualTo("Drogba");
     }
 
+    @Test
+    public void shouldNotSetValueToAttributeOfIncompatibleTypeInBatch() throws Exception {
+        configureBeanManagerToReturn(new Player());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        AttributeList attributes = new AttributeList(asList(new Attribute("name", "Terry"), new Attribute("age", "old")));
+        List<Attribute> returnedAttributes = mBean.setAttributes(attributes).asList();
+
+        assertThat(returnedAttributes).extracting("name").containsExactly("name");
+        assertThat(mBean.getAttribute("age")).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldResolveReferenceOnlyOnceWhenSettingMultipleAttributes() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        given(bean.getScope()).willReturn(Dependent.class);
+
+        DynamicMBeanWrapper.wrap(bean, beanManager).setAttributes(new AttributeList(asList(new Attribute("name", "Cech"), new Attribute("age", 33))));
+
+        verify(beanManager, times(1)).getReference(eq(bean), eq(Player.class), notNull(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldNotSetAnyAttributeOfAtomicBatchWhenOneIsInvalid() throws Exception {
+        Connections connections = new Connections();
+        configureBeanManagerToReturn(connections);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        AttributeList attributes = new AttributeList(asList(new Attribute("minSize", 5), new Attribute("maxSize", "ten")));
+
+        assertThat(mBean.setAttributes(attributes)).isEmpty();
+        assertThat(connections.minSize).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRestoreAttributesOfAtomicBatchWhenWriteFails() throws Exception {
+        Connections connections = new Connections();
+        configureBeanManagerToReturn(connections);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        AttributeList attributes = new AttributeList(asList(new Attribute("minSize", 5), new Attribute("timeout", 30), new Attribute("maxSize", 2)));
+
+        assertThat(mBean.setAttributes(attributes)).isEmpty();
+        assertThat(connections.minSize).isEqualTo(1);
+        assertThat(connections.timeout).isEqualTo(10);
+        assertThat(connections.maxSize).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldSetAllAttributesOfValidAtomicBatch() throws Exception {
+        Connections connections = new Connections();
+        configureBeanManagerToReturn(connections);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        AttributeList attributes = new AttributeList(asList(new Attribute("minSize", 2), new Attribute("maxSize", 16)));
+
+        assertThat(mBean.setAttributes(attributes)).hasSize(2);
+        assertThat(connections.minSize).isEqualTo(2);
+        assertThat(connections.maxSize).isEqualTo(16);
+    }
+
+    @Test
+    public void shouldPublishLatencyOfTimedMethodAsReadOnlyAttributes() throws Exception {
+        configureBeanManagerToReturn(new Checkout());
+        LatencyHistogram latency = MethodTimers.of(Checkout.class.getMethod("pay", int.class));
+        latency.record(1_000_000);
+        latency.record(3_000_000);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+
+        assertThat(Stream.of(mBean.getMBeanInfo().getAttributes()).filter(info -> !info.isWritable()).map(MBeanAttributeInfo::getName).toArray())
+        .containsOnly("total", "pay.count", "pay.meanMicros", "pay.p50Micros", "pay.p99Micros", "pay.p999Micros", "pay.maxMicros");
+        assertThat(mBean.getAttribute("pay.count")).isEqualTo(2L);
+        assertThat(mBean.getAttribute("pay.meanMicros")).isEqualTo(2000.0);
+        assertThat(mBean.getAttribute("pay.maxMicros")).isEqualTo(3000.0);
+        assertThat((double) mBean.getAttribute("pay.p50Micros")).isBetween(1000.0, 1250.0);
+        assertThat(mBean.getAttribute("pay.p99Micros")).isEqualTo(3000.0);
+    }
+
+    @Test
+    public void shouldLabelOverloadedTimedMethodsWithTheirParameterTypes() throws Exception {
+        configureBeanManagerToReturn(new Register());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+
+        assertThat(Stream.of(mBean.getMBeanInfo().getAttributes()).map(MBeanAttributeInfo::getName).filter(name -> name.endsWith(".count")).toArray())
+        .containsExactly("close.count", "refund(String).count", "refund(int).count");
+    }
+
+    @Test
+    public void shouldReadLatencyOfTimedMethodsWithoutResolvingTheBean() throws Exception {
+        configureBeanManagerToReturn(new Register());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.getAttribute("close.count");
+        mBean.getAttributes(new String[] { "close.count", "close.maxMicros" });
+
+        verify(beanManager, never()).getReference(eq(bean), eq(Register.class), notNull(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldPublishMetricFieldsAsAttributes() throws Exception {
+        Sessions sessions = new Sessions();
+        configureBeanManagerToReturn(sessions);
+        BeanMetrics.of(Sessions.class).bind(sessions);
+        sessions.opened.add(3);
+        sessions.logins.mark(2);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+
+        assertThat(Stream.of(mBean.getMBeanInfo().getAttributes()).map(MBeanAttributeInfo::getName).toArray()).containsExactly("opened",
+                "active", "logins.count", "logins.meanRate", "logins.oneMinuteRate", "logins.fiveMinuteRate", "logins.fifteenMinuteRate");
+        assertThat(Stream.of(mBean.getMBeanInfo().getAttributes()).map(MBeanAttributeInfo::getType).toArray()).containsExactly("long",
+                "long", "long", "double", "double", "double", "double");
+        assertThat(mBean.getAttribute("opened")).isEqualTo(3L);
+        assertThat(mBean.getAttribute("active")).isEqualTo(42L);
+        assertThat(mBean.getAttribute("logins.count")).isEqualTo(2L);
+        verify(beanManager, never()).getReference(eq(bean), eq(Sessions.class), notNull(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldReadMetricsAsZeroUntilBeanIsCreated() throws Exception {
+        configureBeanManagerToReturn(new Tickets());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+
+        assertThat(mBean.getAttribute("sold")).isEqualTo(0L);
+        assertThat(mBean.getAttribute("sales.oneMinuteRate")).isEqualTo(0.0);
+    }
+
     @Test
     public void shouldInvokeOperationWithoutParameters() throws Exception {
         configureBeanManagerToReturn(new Person());
@@ -340,6 +927,46 @@ public class DynamicMBeanWrapperTest {
         assertThat(result).isEqualTo(50);
     }
 
+    @Test
+    public void shouldInvokeOverloadedOperationMatchingSignature() throws Exception {
+        configureBeanManagerToReturn(new Calculator());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+
+        assertThat(mBean.invoke("sum", new Object[] { 1, 2 }, new String[] { "int", "int" })).isEqualTo(3);
+        assertThat(mBean.invoke("sum", new Object[] { 1L, 2L }, new String[] { "long", "long" })).isEqualTo(3L);
+        assertThat(mBean.invoke("sum", new Object[] { "1", "2" }, new String[] { "java.lang.String", "java.lang.String" })).isEqualTo("12");
+    }
+
+    @Test
+    public void shouldInvokeOperationWithPrimitiveParametersUsingWrapperSignature() throws Exception {
+        configureBeanManagerToReturn(new Calculator());
+
+        Object result = DynamicMBeanWrapper.wrap(bean, beanManager)
+                .invoke("sum", new Object[] { 1L, 2L }, new String[] { "java.lang.Long", "java.lang.Long" });
+
+        assertThat(result).isEqualTo(3L);
+    }
+
+    @Test
+    public void shouldPreferExactSignatureMatchOverWrapperMatch() throws Exception {
+        configureBeanManagerToReturn(new Calculator());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+
+        assertThat(mBean.invoke("describe", new Object[] { 1 }, new String[] { "int" })).isEqualTo("primitive");
+        assertThat(mBean.invoke("describe", new Object[] { 1 }, new String[] { "java.lang.Integer" })).isEqualTo("wrapper");
+    }
+
+    @Test
+    public void shouldInvokeOperationWithoutParametersWhenSignatureIsNull() throws Exception {
+        Person person = new Person();
+        person.retired = true;
+        configureBeanManagerToReturn(person);
+
+        assertThat(DynamicMBeanWrapper.wrap(bean, beanManager).invoke("isRetired", null, null)).isEqualTo(true);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void shouldFailIfOperationCannotBeFound() throws Exception {
         configureBeanManagerToReturn(new Person());
@@ -354,6 +981,188 @@ public class DynamicMBeanWrapperTest {
         DynamicMBeanWrapper.wrap(bean, beanManager).invoke("getManufacturer", new Object[] {}, new String[] {});
     }
 
+    @Test
+    public void shouldResolveReferenceOnlyOnceForNormalScopedBean() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        given(bean.getScope()).willReturn(ApplicationScoped.class);
+        given(beanManager.isNormalScope(ApplicationScoped.class)).willReturn(true);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.setAttribute(new Attribute("name", "Pogba"));
+        mBean.getAttribute("name");
+        mBean.invoke("getAge", new Object[] {}, new String[] {});
+
+        verify(beanManager, times(1)).resolve(any(Set.class));
+        verify(beanManager, times(1)).getReference(eq(bean), eq(Player.class), notNull(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldResolveReferenceOnEveryCallForPseudoScopedBean() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        given(bean.getScope()).willReturn(Singleton.class);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.getAttribute("name");
+        mBean.getAttribute("age");
+
+        verify(beanManager, times(1)).resolve(any(Set.class));
+        verify(beanManager, times(2)).getReference(eq(bean), eq(Player.class), notNull(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldNotReleaseCreationalContextOfSingletonWhenUnregistered() throws Exception {
+        CreationalContext<?> context = mock(CreationalContext.class);
+        given(beanManager.createCreationalContext(bean)).willReturn(context);
+        configureBeanManagerToReturn(new Player());
+        given(bean.getScope()).willReturn(Singleton.class);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Player");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+
+        server.getAttribute(name, "name");
+        server.unregisterMBean(name);
+
+        verify(context, never()).release();
+        verify(bean, never()).destroy(any(), any(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldNotCreateDependentInstanceOnceUnregistered() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        given(bean.getScope()).willReturn(Dependent.class);
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.postRegister(true);
+        mBean.getAttribute("name");
+        mBean.postDeregister();
+
+        try {
+            mBean.getAttribute("name");
+            throw new AssertionError("Released reference should not be created again.");
+        } catch (IllegalStateException e) {
+            verify(beanManager, times(1)).getReference(eq(bean), eq(Player.class), notNull(CreationalContext.class));
+        }
+    }
+
+    @Test
+    public void shouldOwnSingleInstanceOfDependentBean() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        given(bean.getScope()).willReturn(Dependent.class);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.getAttribute("name");
+        mBean.getAttribute("age");
+
+        verify(beanManager, times(1)).resolve(any(Set.class));
+        verify(beanManager, times(1)).getReference(eq(bean), eq(Player.class), notNull(CreationalContext.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDestroyOwnedInstanceOfDependentBeanWhenUnregistered() throws Exception {
+        Player player = new Player();
+        configureBeanManagerToReturn(player);
+        given(bean.getScope()).willReturn(Dependent.class);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Player");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+        Object created = server.getAttribute(AccessStatistics.OBJECT_NAME, "DependentInstances");
+
+        server.getAttribute(name, "name");
+        Object owned = server.getAttribute(AccessStatistics.OBJECT_NAME, "DependentInstances");
+        server.unregisterMBean(name);
+
+        assertThat(created).isEqualTo(0);
+        assertThat(owned).isEqualTo(1);
+        verify(bean).destroy(eq(player), notNull(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldReleaseCreationalContextOfNormalScopedBeanWhenUnregistered() throws Exception {
+        CreationalContext<?> context = mock(CreationalContext.class);
+        given(beanManager.createCreationalContext(bean)).willReturn(context);
+        configureBeanManagerToReturn(new Player());
+        given(bean.getScope()).willReturn(ApplicationScoped.class);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("test:type=Player");
+        server.registerMBean(DynamicMBeanWrapper.wrap(bean, beanManager), name);
+
+        server.getAttribute(name, "name");
+        server.unregisterMBean(name);
+
+        verify(context).release();
+        verify(bean, never()).destroy(any(), any(CreationalContext.class));
+    }
+
+    @Test
+    public void shouldUseGeneratedMetadataWhenAvailable() throws Exception {
+        configureBeanManagerToReturn(new Thermostat());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrap(bean, beanManager);
+        mBean.setAttribute(new Attribute("temperature", 21));
+
+        assertThat(mBean.getMBeanInfo().getDescription()).isEqualTo("a thermostat");
+        assertThat(mBean.getMBeanInfo().getAttributes()).hasSize(1);
+        assertThat(mBean.getMBeanInfo().getOperations()).isEmpty();
+        assertThat(mBean.getAttribute("temperature")).isEqualTo(21);
+    }
+
+    @Test
+    public void shouldDescribeLazyWrapperOnlyByClassAndDescriptionUntilRegistered() throws Exception {
+        configureBeanManagerToReturn(new Canada());
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrapLazily(bean, beanManager);
+        MBeanInfo mBeanInfo = mBean.getMBeanInfo();
+
+        assertThat(mBeanInfo.getClassName()).isEqualTo(Canada.class.getName());
+        assertThat(mBeanInfo.getAttributes()).isEmpty();
+        assertThat(mBeanInfo.getOperations()).isEmpty();
+
+        mBean.postRegister(true);
+
+        assertThat(mBean.getMBeanInfo().getAttributes()).hasSize(2);
+        assertThat(mBean.getMBeanInfo().getOperations()).hasSize(3);
+    }
+
+    @Test
+    public void shouldBuildMetadataOfLazyWrapperOnFirstAccess() throws Exception {
+        Player player = new Player();
+        player.name = "Kaka";
+        configureBeanManagerToReturn(player);
+
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrapLazily(bean, beanManager);
+
+        assertThat(mBean.getAttribute("name")).isEqualTo("Kaka");
+        assertThat(mBean.getMBeanInfo().getAttributes()).hasSize(2);
+    }
+
+    @Test
+    public void shouldBuildMetadataOfLazyWrapperOnlyOnce() throws Exception {
+        configureBeanManagerToReturn(new Player());
+        DynamicMBeanWrapper mBean = DynamicMBeanWrapper.wrapLazily(bean, beanManager);
+        mBean.postRegister(true);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<MBeanInfo>> results = executor.invokeAll(Collections.nCopies(32, mBean::getMBeanInfo));
+
+            for (Future<MBeanInfo> result : results) {
+                assertThat(result.get()).isSameAs(results.get(0).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void awaitSamples(Gauge gauge, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (gauge.samplerReads.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(gauge.samplerReads.get()).isGreaterThanOrEqualTo(count);
+    }
+
     private void configureBeanManagerToReturn(Object object) {
         given(bean.getBeanClass()).willReturn(object.getClass());
         given(beanManager.getReference(eq(bean), eq(object.getClass()), notNull(CreationalContext.class))).willReturn(object);
@@ -445,6 +1254,299 @@ public class DynamicMBeanWrapperTest {
         }
     }
 
+    @MBean
+    private static class Pool implements ConsistentAttributes {
+
+        private int active = 3;
+        private int idle = 7;
+        private int snapshots;
+        private boolean reading;
+
+        public int getActive() {
+            return reading ? active : -1;
+        }
+
+        public int getIdle() {
+            return reading ? idle : -1;
+        }
+
+        @Override
+        public synchronized void readSnapshot(Runnable reader) {
+            snapshots++;
+            reading = true;
+            reader.run();
+            reading = false;
+        }
+    }
+
+    @MBean
+    private static class Inventory {
+
+        private final AtomicInteger sizeComputations = new AtomicInteger();
+        private final AtomicInteger recentComputations = new AtomicInteger();
+        private int size = 42;
+
+        @CachedAttribute(ttl = 1, unit = TimeUnit.MINUTES)
+        public int getSize() throws InterruptedException {
+            sizeComputations.incrementAndGet();
+            Thread.sleep(10);
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        @CachedAttribute(ttl = 5, unit = TimeUnit.MILLISECONDS)
+        public int getRecent() {
+            return recentComputations.incrementAndGet();
+        }
+    }
+
+    @MBean
+    private static class Gauge {
+
+        private final AtomicInteger samplerReads = new AtomicInteger();
+        private final AtomicInteger callerReads = new AtomicInteger();
+
+        @Sampled(interval = 10, unit = TimeUnit.MILLISECONDS)
+        public int getLevel() {
+            if (Thread.currentThread().getName().startsWith("jmxext-sampler"))
+                samplerReads.incrementAndGet();
+            else
+                callerReads.incrementAndGet();
+
+            return 5;
+        }
+    }
+
+    @MBean
+    @Sampled(interval = 1, unit = TimeUnit.HOURS)
+    private static class Tank {
+
+        public int getVolume() {
+            return 100;
+        }
+
+        @Sampled(interval = 1)
+        public int getPressure() {
+            return 2;
+        }
+
+        public void setTarget(int target) {
+        }
+    }
+
+    @MBean(atomicSetAttributes = true)
+    private static class Connections {
+
+        private int minSize = 1;
+        private int maxSize = 8;
+        private int timeout = 10;
+
+        public int getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(int minSize) {
+            this.minSize = minSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            if (maxSize < minSize)
+                throw new IllegalArgumentException("Max size cannot be lower than min size.");
+
+            this.maxSize = maxSize;
+        }
+
+        public int getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(int timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    @MBean
+    private static class Checkout {
+
+        private int total;
+
+        public int getTotal() {
+            return total;
+        }
+
+        @Timed
+        public void pay(int amount) {
+            total += amount;
+        }
+    }
+
+    @MBean
+    @Timed
+    private static class Register {
+
+        public void close() {
+        }
+
+        public void refund(int amount) {
+        }
+
+        public void refund(String receipt) {
+        }
+    }
+
+    @MBean
+    private static class Sessions {
+
+        @Metric
+        private final Counter opened = new Counter();
+
+        @Metric(name = "active")
+        private final com.cenerino.jmxext.metrics.Gauge activeSessions = () -> 42;
+
+        @Metric
+        private final Meter logins = new Meter();
+    }
+
+    @MBean
+    private static class Tickets {
+
+        @Metric
+        private final Counter sold = new Counter();
+
+        @Metric
+        private final Meter sales = new Meter();
+    }
+
+    @MBean(notificationTypes = { "doorbell.rang", "doorbell.muted" })
+    private static class Doorbell {
+    }
+
+    @MBean
+    @ForwardEvents(Integer.class)
+    private static class Breaker {
+    }
+
+    @MBean
+    public static class Garage {
+
+        public enum State {
+            OPEN, CLOSED
+        }
+
+        private Vehicle car = new Vehicle();
+        private Map<String, Integer> spots = new HashMap<>();
+        private AtomicInteger count = new AtomicInteger();
+        private State state = State.OPEN;
+
+        public Vehicle getCar() {
+            return car;
+        }
+
+        public void setCar(Vehicle car) {
+            this.car = car;
+        }
+
+        public Map<String, Integer> getSpots() {
+            return spots;
+        }
+
+        public AtomicInteger getCount() {
+            return count;
+        }
+
+        public void setCount(AtomicInteger count) {
+            this.count = count;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public void setState(State state) {
+            this.state = state;
+        }
+    }
+
+    public static class Vehicle {
+
+        private String color;
+
+        public String getColor() {
+            return color;
+        }
+
+        public void setColor(String color) {
+            this.color = color;
+        }
+    }
+
+    // Public, so that its primitive attributes are watched through method handles
+    @MBean
+    public static class Valve {
+
+        private volatile boolean open;
+        private volatile int pressure;
+        private volatile String label;
+
+        @Watched
+        public boolean isOpen() {
+            return open;
+        }
+
+        public void setOpen(boolean open) {
+            this.open = open;
+        }
+
+        @Watched
+        public int getPressure() {
+            return pressure;
+        }
+
+        public void setPressure(int pressure) {
+            this.pressure = pressure;
+        }
+
+        @Watched
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+    }
+
+    @MBean
+    private static class Calculator {
+
+        public int sum(int n1, int n2) {
+            return n1 + n2;
+        }
+
+        public long sum(long n1, long n2) {
+            return n1 + n2;
+        }
+
+        public String sum(String s1, String s2) {
+            return s1 + s2;
+        }
+
+        public String describe(int n) {
+            return "primitive";
+        }
+
+        public String describe(Integer n) {
+            return "wrapper";
+        }
+    }
+
     @MBean
     private static class Player {
 
@@ -0,0 +1,155 @@
+package com.cenerino.jmxext.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.cenerino.jmxext.MBean;
+import com.cenerino.jmxext.ObjectNameKey;
+
+public class InstanceRegistryTest {
+
+    private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+    private final InstanceRegistry registry = new InstanceRegistry(server, 2);
+
+    @After
+    public void tearDown() {
+        registry.unregisterAll();
+    }
+
+    @Test
+    public void shouldNameInstancesAfterTheirObjectNameKeys() throws Exception {
+        ObjectName name = registry.register(new Pool("orders", "eu west"));
+
+        assertThat(name).isEqualTo(new ObjectName("com.cenerino.jmxext.impl:type=Pool,name=orders,region=\"eu west\""));
+        assertThat(server.getAttribute(name, "name")).isEqualTo("orders");
+    }
+
+    @Test
+    public void shouldNameInstancesWithoutObjectNameKeysSequentially() throws Exception {
+        ObjectName first = registry.register(new Worker());
+        ObjectName second = registry.register(new Worker());
+
+        assertThat(first.getKeyProperty("id")).isNotEqualTo(second.getKeyProperty("id"));
+        assertThat(server.isRegistered(first)).isTrue();
+        assertThat(server.isRegistered(second)).isTrue();
+    }
+
+    @Test
+    public void shouldNameInstancesAfterGivenKeyProperties() throws Exception {
+        ObjectName name = registry.register(new Worker(), Collections.singletonMap("name", "indexer"));
+
+        assertThat(name).isEqualTo(new ObjectName("com.cenerino.jmxext.impl:type=Worker,name=indexer"));
+    }
+
+    @Test
+    public void shouldRegisterInstanceOnlyOnce() throws Exception {
+        Pool pool = new Pool("orders", "eu");
+
+        assertThat(registry.register(pool)).isEqualTo(registry.register(pool));
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldShareMetadataOfInstancesOfSameClass() throws Exception {
+        ObjectName first = registry.register(new Pool("orders", "eu"));
+        ObjectName second = registry.register(new Pool("invoices", "eu"));
+
+        assertThat(server.getMBeanInfo(first).getAttributes()).isEqualTo(server.getMBeanInfo(second).getAttributes());
+        assertThat(server.getAttribute(second, "name")).isEqualTo("invoices");
+    }
+
+    @Test
+    public void shouldRefuseInstancesBeyondTheBound() throws Exception {
+        registry.register(new Worker());
+        registry.register(new Worker());
+
+        assertThat(registry.register(new Worker())).isNull();
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldUnregisterInstance() throws Exception {
+        Worker worker = new Worker();
+        ObjectName name = registry.register(worker);
+
+        assertThat(registry.unregister(worker)).isTrue();
+        assertThat(registry.unregister(worker)).isFalse();
+        assertThat(server.isRegistered(name)).isFalse();
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    public void shouldRegisterSingleMBeanWhenInstanceIsRegisteredConcurrently() throws Exception {
+        Worker worker = new Worker();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ObjectName>> names = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                names.add(executor.submit(() -> registry.register(worker)));
+            }
+
+            for (Future<ObjectName> name : names) {
+                assertThat(name.get()).isEqualTo(names.get(0).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(server.queryNames(new ObjectName("com.cenerino.jmxext.impl:type=Worker,*"), null)).hasSize(1);
+        assertThat(registry.unregister(worker)).isTrue();
+        assertThat(server.queryNames(new ObjectName("com.cenerino.jmxext.impl:type=Worker,*"), null)).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInstanceOfClassWithoutMBeanAnnotation() throws Exception {
+        registry.register(new Object());
+    }
+
+    // Dummy classes used by the tests above
+
+    @MBean(perInstance = true)
+    public static class Pool {
+
+        private final String name;
+        private final String region;
+
+        Pool(String name, String region) {
+            this.name = name;
+            this.region = region;
+        }
+
+        @ObjectNameKey("name")
+        public String getName() {
+            return name;
+        }
+
+        @ObjectNameKey("region")
+        public String getRegion() {
+            return region;
+        }
+    }
+
+    @MBean(perInstance = true)
+    public static class Worker {
+
+        private int processed;
+
+        public int getProcessed() {
+            return processed;
+        }
+    }
+}
@@ -7,15 +7,21 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.notNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 
 import java.beans.IntrospectionException;
 
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.BeforeShutdown;
+import javax.enterprise.inject.spi.ObserverMethod;
 import javax.enterprise.inject.spi.ProcessManagedBean;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
@@ -23,11 +29,14 @@ import javax.management.ObjectName;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 
+import com.cenerino.jmxext.ForwardEvents;
 import com.cenerino.jmxext.MBean;
 
 @RunWith(PowerMockRunner.class)
@@ -51,6 +60,7 @@ public class JmxExtensionTest {
     public void setUp() throws IntrospectionException {
         mockStatic(DynamicMBeanWrapper.class);
         given(DynamicMBeanWrapper.wrap(notNull(Bean.class), notNull(BeanManager.class))).willReturn(mock(DynamicMBeanWrapper.class));
+        given(DynamicMBeanWrapper.wrapLazily(notNull(Bean.class), notNull(BeanManager.class))).willReturn(mock(DynamicMBeanWrapper.class));
 
         given(event.getBean().getBeanClass()).willReturn(getClass());
     }
@@ -59,15 +69,64 @@ public class JmxExtensionTest {
     public void shouldRegisterClassAnnotatedWithMBean() throws Exception {
         given(event.getAnnotated().isAnnotationPresent(MBean.class)).willReturn(true);
 
-        jmxExtension.processBean(event, beanManager);
+        jmxExtension.processBean(event);
+        jmxExtension.registerMBeans(mock(AfterDeploymentValidation.class), beanManager);
 
         assertThat(jmxExtension.getMBeanCount()).isEqualTo(1);
         verify(mBeanServer).registerMBean(notNull(DynamicMBeanWrapper.class), notNull(ObjectName.class));
     }
 
+    @Test
+    public void shouldRegisterLazilyWrappedMBeanWhenLazyIntrospectionIsEnabled() throws Exception {
+        given(event.getAnnotated().isAnnotationPresent(MBean.class)).willReturn(true);
+        Whitebox.setInternalState(jmxExtension, "lazyIntrospection", true);
+
+        jmxExtension.processBean(event);
+        jmxExtension.registerMBeans(mock(AfterDeploymentValidation.class), beanManager);
+
+        assertThat(jmxExtension.getMBeanCount()).isEqualTo(1);
+        verifyStatic(never());
+        DynamicMBeanWrapper.wrap(any(Bean.class), any(BeanManager.class));
+        verifyStatic();
+        DynamicMBeanWrapper.wrapLazily(any(Bean.class), any(BeanManager.class));
+    }
+
+    @Test
+    public void shouldNotRegisterMBeansBeforeDeploymentIsValidated() throws Exception {
+        given(event.getAnnotated().isAnnotationPresent(MBean.class)).willReturn(true);
+
+        jmxExtension.processBean(event);
+
+        assertThat(jmxExtension.getMBeanCount()).isEqualTo(0);
+        verifyZeroInteractions(mBeanServer);
+    }
+
+    @Test
+    public void shouldRegisterAllDiscoveredMBeansInOneBatch() throws Exception {
+        Class<?>[] beanClasses = { String.class, Integer.class, Long.class, Double.class, Float.class, Short.class, Byte.class, Character.class };
+
+        for (Class<?> beanClass : beanClasses) {
+            ProcessManagedBean beanEvent = mock(ProcessManagedBean.class, RETURNS_DEEP_STUBS.get());
+            given(beanEvent.getAnnotated().isAnnotationPresent(MBean.class)).willReturn(true);
+            given(beanEvent.getBean().getBeanClass()).willReturn(beanClass);
+            jmxExtension.processBean(beanEvent);
+        }
+
+        jmxExtension.registerMBeans(mock(AfterDeploymentValidation.class), beanManager);
+
+        assertThat(jmxExtension.getMBeanCount()).isEqualTo(beanClasses.length);
+        verify(mBeanServer, times(beanClasses.length)).registerMBean(notNull(DynamicMBeanWrapper.class), notNull(ObjectName.class));
+
+        jmxExtension.shutdown(mock(BeforeShutdown.class));
+
+        assertThat(jmxExtension.getMBeanCount()).isEqualTo(0);
+        verify(mBeanServer, times(beanClasses.length)).unregisterMBean(notNull(ObjectName.class));
+    }
+
     @Test
     public void shouldNotRegisterClassWithoutMBeanAnnotation() throws Exception {
-        jmxExtension.processBean(event, beanManager);
+        jmxExtension.processBean(event);
+        jmxExtension.registerMBeans(mock(AfterDeploymentValidation.class), beanManager);
 
         assertThat(jmxExtension.getMBeanCount()).isEqualTo(0);
         verifyZeroInteractions(mBeanServer);
@@ -78,7 +137,8 @@ public class JmxExtensionTest {
         given(event.getAnnotated().isAnnotationPresent(MBean.class)).willReturn(true);
         doThrow(RuntimeException.class).when(mBeanServer).registerMBean(any(DynamicMBeanWrapper.class), any(ObjectName.class));
 
-        jmxExtension.processBean(event, beanManager);
+        jmxExtension.processBean(event);
+        jmxExtension.registerMBeans(mock(AfterDeploymentValidation.class), beanManager);
 
         assertThat(jmxExtension.getMBeanCount()).isEqualTo(0);
         verify(mBeanServer).registerMBean(notNull(DynamicMBeanWrapper.class), notNull(ObjectName.class));
@@ -93,4 +153,36 @@ public class JmxExtensionTest {
         assertThat(jmxExtension.getMBeanCount()).isEqualTo(0);
         verify(mBeanServer).unregisterMBean(notNull(ObjectName.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldObserveEventsForwardedByMBean() throws Exception {
+        given(event.getAnnotated().isAnnotationPresent(MBean.class)).willReturn(true);
+        given(event.getBean().getBeanClass()).willReturn(Breaker.class);
+        AfterBeanDiscovery afterBeanDiscovery = mock(AfterBeanDiscovery.class);
+        ArgumentCaptor<ObserverMethod> observers = ArgumentCaptor.forClass(ObserverMethod.class);
+
+        jmxExtension.processBean(event);
+        jmxExtension.forwardEvents(afterBeanDiscovery);
+
+        verify(afterBeanDiscovery, times(2)).addObserverMethod(observers.capture());
+        assertThat(observers.getAllValues().stream().map(ObserverMethod::getObservedType).toArray()).containsExactly(String.class, Long.class);
+        assertThat(observers.getValue().getBeanClass()).isEqualTo(Breaker.class);
+        assertThat(observers.getValue().getObservedQualifiers()).isEmpty();
+    }
+
+    @Test
+    public void shouldNotObserveEventsForMBeanWithoutForwardedEvents() throws Exception {
+        given(event.getAnnotated().isAnnotationPresent(MBean.class)).willReturn(true);
+        AfterBeanDiscovery afterBeanDiscovery = mock(AfterBeanDiscovery.class);
+
+        jmxExtension.processBean(event);
+        jmxExtension.forwardEvents(afterBeanDiscovery);
+
+        verifyZeroInteractions(afterBeanDiscovery);
+    }
+
+    @MBean
+    @ForwardEvents({ String.class, Long.class })
+    private static class Breaker {
+    }
+}
@@ -0,0 +1,55 @@
+package com.cenerino.jmxext.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldPlaceValuesInBucketsBoundedWithinQuarterOfTheValue() {
+        for (long value = 0; value < 1L << 36; value = value * 5 / 4 + 1) {
+            long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+
+            assertThat(upperBound).isGreaterThanOrEqualTo(value);
+            assertThat(upperBound - value).isLessThanOrEqualTo(value / 4);
+        }
+    }
+
+    @Test
+    public void shouldUseIncreasingBuckets() {
+        int previous = 0;
+
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+
+            assertThat(bucket).isBetween(previous, previous + 1);
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void shouldReportCountMeanMaxAndPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMean()).isEqualTo(500_500.0);
+        assertThat(histogram.getMax()).isEqualTo(1_000_000);
+        assertThat((double) histogram.getPercentile(50)).isCloseTo(500_000, within(125_000.0));
+        assertThat((double) histogram.getPercentile(99)).isCloseTo(990_000, within(10_000.0));
+        assertThat(histogram.getPercentile(100)).isEqualTo(1_000_000);
+    }
+
+    @Test
+    public void shouldReportZeroWhenEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getMean()).isZero();
+        assertThat(histogram.getPercentile(99)).isZero();
+    }
+}
@@ -0,0 +1,141 @@
+package com.cenerino.jmxext.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import javax.management.Notification;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class NotificationChannelTest {
+
+    private final List<Notification> received = new CopyOnWriteArrayList<>();
+    private final MBeanNotifications broadcaster = new MBeanNotifications();
+
+    public NotificationChannelTest() {
+        broadcaster.addNotificationListener((notification, handback) -> received.add(notification), null, null);
+    }
+
+    @Test
+    public void shouldSendPublishedNotificationsOnceAttached() throws Exception {
+        NotificationChannel channel = NotificationChannel.of(Door.class);
+        channel.publish("door.opened", "front", 1);
+        channel.publish("door.closed", "front");
+        Thread.sleep(150);
+
+        assertThat(received).isEmpty();
+
+        channel.attach(broadcaster, new ObjectName("test:type=Door"));
+        awaitNotifications(2);
+
+        assertThat(received.stream().map(Notification::getType).toArray()).containsExactly("door.opened", "door.closed");
+        assertThat(received.get(0).getUserData()).isEqualTo(1);
+        assertThat(received.get(0).getSource()).isEqualTo(new ObjectName("test:type=Door"));
+        assertThat(received.get(1).getSequenceNumber()).isGreaterThan(received.get(0).getSequenceNumber());
+        assertThat(channel.getSent()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldCoalesceIdenticalNotificationsOfSameBatch() throws Exception {
+        NotificationChannel channel = NotificationChannel.of(Alarm.class);
+        IntStream.range(0, 10).forEach(i -> channel.publish("alarm.raised", "smoke"));
+        channel.publish("alarm.raised", "fire");
+
+        channel.attach(broadcaster, new ObjectName("test:type=Alarm"));
+        awaitNotifications(2);
+
+        assertThat(received.stream().map(Notification::getMessage).toArray()).containsExactly("smoke", "fire");
+        assertThat(channel.getCoalesced()).isEqualTo(9);
+    }
+
+    @Test
+    public void shouldDescribeForwardedEventsOffFiringThread() throws Exception {
+        NotificationChannel channel = NotificationChannel.forEvents(Alarm.class);
+        channel.attach(broadcaster, new ObjectName("test:type=Alarm"));
+        Thread firing = Thread.currentThread();
+        List<Thread> describing = new CopyOnWriteArrayList<>();
+
+        channel.forward("alarm.raised", new Object() {
+
+            @Override
+            public String toString() {
+                describing.add(Thread.currentThread());
+                return "smoke";
+            }
+        });
+        awaitNotifications(1);
+
+        assertThat(received.get(0).getMessage()).isEqualTo("smoke");
+        assertThat(describing).hasSize(1).doesNotContain(firing);
+    }
+
+    @Test
+    public void shouldDropNotificationsWhenQueueIsFull() {
+        NotificationChannel channel = NotificationChannel.of(Sensor.class);
+
+        long queued = IntStream.range(0, 1100).filter(i -> channel.publish("sensor.read", String.valueOf(i))).count();
+
+        assertThat(queued).isEqualTo(1024);
+        assertThat(channel.getDropped()).isEqualTo(76);
+    }
+
+    @Test
+    public void shouldStopSendingNotificationsOnceDetached() throws Exception {
+        NotificationChannel channel = NotificationChannel.of(Bell.class);
+        channel.attach(broadcaster, new ObjectName("test:type=Bell"));
+        channel.detach(broadcaster);
+
+        channel.publish("bell.rang", "ding");
+        Thread.sleep(150);
+
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    public void shouldBeListenedOnlyWhileAttachedToMBeanWithListeners() throws Exception {
+        NotificationChannel channel = NotificationChannel.forEvents(Door.class);
+        MBeanNotifications unlistened = new MBeanNotifications();
+
+        assertThat(channel.isListened()).isFalse();
+
+        channel.attach(unlistened, new ObjectName("test:type=Door"));
+
+        assertThat(channel.isListened()).isFalse();
+
+        channel.attach(broadcaster, new ObjectName("test:type=Door"));
+
+        assertThat(channel.isListened()).isTrue();
+
+        channel.detach(broadcaster);
+
+        assertThat(channel.isListened()).isFalse();
+    }
+
+    private void awaitNotifications(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(received).hasSize(count);
+    }
+
+    // Every test publishes through the channel of its own class
+
+    private static class Door {
+    }
+
+    private static class Alarm {
+    }
+
+    private static class Sensor {
+    }
+
+    private static class Bell {
+    }
+}
@@ -0,0 +1,182 @@
+package com.cenerino.jmxext.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.openmbean.ArrayType;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+public class OpenTypeConverterTest {
+
+    @Test
+    public void shouldNotConvertOpenTypes() throws Exception {
+        assertThat(OpenTypeConverter.of(int.class)).isNull();
+        assertThat(OpenTypeConverter.of(Long.class)).isNull();
+        assertThat(OpenTypeConverter.of(String.class)).isNull();
+        assertThat(OpenTypeConverter.of(int[].class)).isNull();
+        assertThat(OpenTypeConverter.of(String[][].class)).isNull();
+        assertThat(OpenTypeConverter.of(CompositeData.class)).isNull();
+    }
+
+    @Test
+    public void shouldNotConvertTypesWithoutOpenType() throws Exception {
+        assertThat(OpenTypeConverter.of(Node.class)).isNull();
+        assertThat(OpenTypeConverter.of(Thread.class)).isNull();
+        assertThat(OpenTypeConverter.of(typeOf("getRaw"))).isNull();
+        assertThat(OpenTypeConverter.of(typeOf("getNodes"))).isNull();
+    }
+
+    @Test
+    public void shouldShareConvertersAndOpenTypesOfSameType() throws Exception {
+        OpenTypeConverter car = OpenTypeConverter.of(Car.class);
+        OpenTypeConverter cars = OpenTypeConverter.of(typeOf("getCars"));
+
+        assertThat(OpenTypeConverter.of(Car.class)).isSameAs(car);
+        assertThat(OpenTypeConverter.of(typeOf("getCars"))).isSameAs(cars);
+        assertThat(((ArrayType<?>) cars.getOpenType()).getElementOpenType()).isSameAs(car.getOpenType());
+    }
+
+    @Test
+    public void shouldConvertBeansToCompositeData() throws Exception {
+        OpenTypeConverter converter = OpenTypeConverter.of(Car.class);
+        CompositeType type = (CompositeType) converter.getOpenType();
+
+        CompositeData data = (CompositeData) converter.toOpenValue(new Car("red", TimeUnit.SECONDS, 3));
+
+        assertThat(type.getTypeName()).isEqualTo(Car.class.getName());
+        assertThat(type.keySet()).containsOnly("color", "unit", "wheels");
+        assertThat(type.getType("unit")).isEqualTo(SimpleType.STRING);
+        assertThat(type.getType("wheels")).isEqualTo(SimpleType.INTEGER);
+        assertThat(data.getAll(new String[] { "color", "unit", "wheels" })).containsExactly("red", "SECONDS", 3);
+    }
+
+    @Test
+    public void shouldConvertCompositeDataBackToBeans() throws Exception {
+        OpenTypeConverter converter = OpenTypeConverter.of(Car.class);
+
+        Car car = (Car) converter.fromOpenValue(converter.toOpenValue(new Car("blue", TimeUnit.HOURS, 4)));
+
+        assertThat(car.getColor()).isEqualTo("blue");
+        assertThat(car.getUnit()).isEqualTo(TimeUnit.HOURS);
+        assertThat(car.getWheels()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldConvertCollectionsAndArraysToArrays() throws Exception {
+        OpenTypeConverter cars = OpenTypeConverter.of(typeOf("getCars"));
+        OpenTypeConverter counters = OpenTypeConverter.of(AtomicInteger[].class);
+
+        Object[] converted = (Object[]) cars.toOpenValue(Arrays.asList(new Car("red", TimeUnit.SECONDS, 3), null));
+
+        assertThat(converted).isInstanceOf(CompositeData[].class).hasSize(2);
+        assertThat(((CompositeData) converted[0]).get("color")).isEqualTo("red");
+        assertThat(converted[1]).isNull();
+        assertThat((List<?>) cars.fromOpenValue(converted)).hasSize(2);
+        assertThat(counters.toOpenValue(new AtomicInteger[] { new AtomicInteger(7) })).isEqualTo(new Integer[] { 7 });
+    }
+
+    @Test
+    public void shouldConvertMapsToTabularData() throws Exception {
+        OpenTypeConverter converter = OpenTypeConverter.of(typeOf("getLevels"));
+        Map<String, AtomicInteger> levels = new LinkedHashMap<>();
+        levels.put("low", new AtomicInteger(1));
+        levels.put("high", new AtomicInteger(9));
+
+        TabularData data = (TabularData) converter.toOpenValue(levels);
+        @SuppressWarnings("unchecked")
+        Map<String, AtomicInteger> restored = (Map<String, AtomicInteger>) converter.fromOpenValue(data);
+
+        assertThat(data.getTabularType().getIndexNames()).containsExactly("key");
+        assertThat(data.get(new Object[] { "high" }).get("value")).isEqualTo(9);
+        assertThat(restored.keySet()).containsOnly("low", "high");
+        assertThat(restored.get("low").get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCacheConvertersOnClassWithLowestLoader() throws Exception {
+        assertThat(OpenTypeConverter.ownerOf(Car.class)).isEqualTo(Car.class);
+        assertThat(OpenTypeConverter.ownerOf(Car[][].class)).isEqualTo(Car.class);
+        assertThat(OpenTypeConverter.ownerOf(typeOf("getCars"))).isEqualTo(Car.class);
+        assertThat(OpenTypeConverter.ownerOf(typeOf("getLevels"))).isEqualTo(Map.class);
+        assertThat(OpenTypeConverter.ownerOf(typeOf("getAny"))).isNull();
+    }
+
+    private static Type typeOf(String getter) throws NoSuchMethodException {
+        return Holder.class.getMethod(getter).getGenericReturnType();
+    }
+
+    // Dummy classes used by the tests above
+
+    public static class Car {
+
+        private String color;
+        private TimeUnit unit;
+        private int wheels;
+
+        public Car() {
+        }
+
+        Car(String color, TimeUnit unit, int wheels) {
+            this.color = color;
+            this.unit = unit;
+            this.wheels = wheels;
+        }
+
+        public String getColor() {
+            return color;
+        }
+
+        public void setColor(String color) {
+            this.color = color;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        public int getWheels() {
+            return wheels;
+        }
+
+        public void setWheels(int wheels) {
+            this.wheels = wheels;
+        }
+    }
+
+    public static class Node {
+
+        public Node getNext() {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    public interface Holder {
+
+        List<Car> getCars();
+
+        Map<String, AtomicInteger> getLevels();
+
+        List getRaw();
+
+        List<Node> getNodes();
+
+        <T> List<T> getAny();
+    }
+}
@@ -0,0 +1,126 @@
+package com.cenerino.jmxext.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RegistryTest {
+
+    private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+    private ObjectName pump;
+    private ObjectName valve;
+    private ObjectName label;
+
+    @Before
+    public void setUp() throws Exception {
+        pump = new ObjectName("com.acme.pumps:type=Pump");
+        valve = new ObjectName("com.acme.valves:type=Valve");
+        label = new ObjectName("com.acme.labels:type=Label");
+        Registry.register(server, pump, new StandardMBean(new Gauge(3, "pump"), GaugeMBean.class));
+        Registry.register(server, valve, new StandardMBean(new Gauge(7, "valve"), GaugeMBean.class));
+        Registry.register(server, label, new StandardMBean(new Label(), LabelMBean.class));
+    }
+
+    @After
+    public void tearDown() {
+        Registry.unregister(server, pump);
+        Registry.unregister(server, valve);
+        Registry.unregister(server, label);
+    }
+
+    @Test
+    public void shouldRegisterRegistryAlongWithFirstMBeanAndUnregisterItWithLast() throws Exception {
+        assertThat(server.isRegistered(Registry.OBJECT_NAME)).isTrue();
+        assertThat(server.getAttribute(Registry.OBJECT_NAME, "MBeanCount")).isEqualTo(3);
+
+        tearDown();
+
+        assertThat(server.isRegistered(Registry.OBJECT_NAME)).isFalse();
+    }
+
+    @Test
+    public void shouldReadAllAttributesOfAllMBeansInOneCall() throws Exception {
+        CompositeData snapshot = (CompositeData) server.invoke(Registry.OBJECT_NAME, "snapshot", new Object[0], new String[0]);
+
+        assertThat(snapshot.getCompositeType().keySet()).containsOnly(pump.getCanonicalName(), valve.getCanonicalName());
+        assertThat(((CompositeData) snapshot.get(pump.getCanonicalName())).get("Level")).isEqualTo(3);
+        assertThat(((CompositeData) snapshot.get(valve.getCanonicalName())).get("Name")).isEqualTo("valve");
+    }
+
+    @Test
+    public void shouldReadOnlyMBeansMatchingPattern() throws Exception {
+        CompositeData snapshot = (CompositeData) server.invoke(Registry.OBJECT_NAME, "snapshot", new Object[] { "com.acme.valves:*" },
+                new String[] { String.class.getName() });
+
+        assertThat(snapshot.getCompositeType().keySet()).containsOnly(valve.getCanonicalName());
+    }
+
+    @Test
+    public void shouldGiveNoSnapshotWhenNoMBeanMatchesPattern() throws Exception {
+        assertThat(Registry.getInstance().snapshot("com.acme.none:*")).isNull();
+    }
+
+    @Test
+    public void shouldLeaveOutAttributesThatCouldNotBeRead() throws Exception {
+        Registry.register(server, pump, new StandardMBean(new Gauge(3, null), GaugeMBean.class));
+
+        CompositeData snapshot = Registry.getInstance().snapshot("com.acme.pumps:*");
+
+        assertThat(((CompositeData) snapshot.get(pump.getCanonicalName())).get("Level")).isEqualTo(3);
+        assertThat(((CompositeData) snapshot.get(pump.getCanonicalName())).get("Name")).isNull();
+    }
+
+    // Dummy MBeans used by the tests above
+
+    public interface GaugeMBean {
+
+        int getLevel();
+
+        String getName();
+    }
+
+    public static class Gauge implements GaugeMBean {
+
+        private final int level;
+        private final String name;
+
+        Gauge(int level, String name) {
+            this.level = level;
+            this.name = name;
+        }
+
+        @Override
+        public int getLevel() {
+            return level;
+        }
+
+        @Override
+        public String getName() {
+            if (name == null)
+                throw new IllegalStateException("No name");
+
+            return name;
+        }
+    }
+
+    public interface LabelMBean {
+
+        Thread getOwner();
+    }
+
+    public static class Label implements LabelMBean {
+
+        @Override
+        public Thread getOwner() {
+            return Thread.currentThread();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.cenerino.jmxext.impl;
+
+import com.cenerino.jmxext.spi.MBeanMetadataBuilder;
+import com.cenerino.jmxext.spi.MBeanMetadataProvider;
+
+// Same shape as the output of jmx-cdi-ext-processor, minus the operations, so tests can tell it apart from introspection
+public final class Thermostat$$JmxMetadata implements MBeanMetadataProvider {
+
+    @Override
+    public void describe(MBeanMetadataBuilder builder) {
+        builder.attribute("temperature", int.class, false, bean -> ((Thermostat) bean).getTemperature(),
+                (bean, value) -> ((Thermostat) bean).setTemperature((Integer) value));
+    }
+}
@@ -0,0 +1,17 @@
+package com.cenerino.jmxext.impl;
+
+import com.cenerino.jmxext.MBean;
+
+@MBean(description = "a thermostat")
+public class Thermostat {
+
+    private int temperature;
+
+    public int getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(int temperature) {
+        this.temperature = temperature;
+    }
+}
@@ -0,0 +1,55 @@
+package com.cenerino.jmxext.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.BDDMockito.given;
+
+import java.lang.reflect.Method;
+
+import javax.interceptor.InvocationContext;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TimedInterceptorTest {
+
+    @Mock
+    private InvocationContext context;
+
+    private final TimedInterceptor interceptor = new TimedInterceptor();
+
+    @Test
+    public void shouldRecordLatencyOfInterceptedMethod() throws Exception {
+        Method method = Clock.class.getMethod("tick");
+        given(context.getMethod()).willReturn(method);
+        given(context.proceed()).willReturn("tock");
+
+        assertThat(interceptor.time(context)).isEqualTo("tock");
+        assertThat(MethodTimers.of(method).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRecordLatencyOfMethodThatThrows() throws Exception {
+        Method method = Clock.class.getMethod("stop");
+        given(context.getMethod()).willReturn(method);
+        given(context.proceed()).willThrow(new IllegalStateException());
+
+        assertThat(catchThrowable(() -> interceptor.time(context))).isInstanceOf(IllegalStateException.class);
+        assertThat(MethodTimers.of(method).getCount()).isEqualTo(1);
+    }
+
+    // Dummy class used by the tests above
+
+    public static class Clock {
+
+        public String tick() {
+            return "tock";
+        }
+
+        public void stop() {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.cenerino.jmxext.metrics;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.Test;
+
+public class MeterTest {
+
+    private long now;
+    private final Meter meter = new Meter(() -> now);
+
+    @Test
+    public void shouldCountMarkedEvents() {
+        meter.mark();
+        meter.mark(4);
+
+        assertThat(meter.getCount()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldComputeMeanRateInEventsPerSecond() {
+        meter.mark(30);
+        now = SECONDS.toNanos(10);
+
+        assertThat(meter.getMeanRate()).isEqualTo(3.0);
+    }
+
+    @Test
+    public void shouldReportNoRateBeforeFirstTick() {
+        meter.mark(100);
+        now = SECONDS.toNanos(4);
+
+        assertThat(meter.getOneMinuteRate()).isZero();
+    }
+
+    @Test
+    public void shouldStartMovingAveragesAtRateOfFirstTick() {
+        meter.mark(50);
+        now = SECONDS.toNanos(5);
+
+        assertThat(meter.getOneMinuteRate()).isEqualTo(10.0, within(1e-9));
+        assertThat(meter.getFiveMinuteRate()).isEqualTo(10.0, within(1e-9));
+        assertThat(meter.getFifteenMinuteRate()).isEqualTo(10.0, within(1e-9));
+    }
+
+    @Test
+    public void shouldDecayMovingAveragesWhenNoEventsAreMarked() {
+        meter.mark(50);
+        now = SECONDS.toNanos(5);
+        meter.getOneMinuteRate();
+        now = SECONDS.toNanos(65);
+
+        // 12 ticks without events decay the one minute average by e^-1
+        assertThat(meter.getOneMinuteRate()).isEqualTo(10.0 / Math.E, within(1e-9));
+        assertThat(meter.getFifteenMinuteRate()).isGreaterThan(meter.getFiveMinuteRate()).isLessThan(10.0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.cenerino.jmxext;
+
+import static com.cenerino.jmxext.util.JmxUtil.isRegistered;
+import static com.cenerino.jmxext.util.JmxUtil.readAttributeValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.shrinkwrap.api.asset.EmptyAsset.INSTANCE;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.ObjectName;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.cenerino.jmxext.beans.ConnectionPool;
+import com.cenerino.jmxext.beans.PoolExhausted;
+
+@RunWith(Arquillian.class)
+public class JmxExtensionInstancesIntegTest {
+
+    @Inject
+    private Instance<ConnectionPool> pools;
+
+    @Inject
+    private MBeanInstances mBeanInstances;
+
+    @Inject
+    private Event<PoolExhausted> poolExhausted;
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Deployment
+    public static JavaArchive createDeployment() {
+        return ShrinkWrap.create(JavaArchive.class).addPackages(true, "com.cenerino.jmxext").addAsManifestResource(INSTANCE, "beans.xml");
+    }
+
+    @Test
+    public void shouldNotRegisterClassOfPerInstanceBean() {
+        assertThat(isRegistered(ConnectionPool.class)).isFalse();
+    }
+
+    @Test
+    public void shouldRegisterEveryInstanceUntilItIsDestroyed() throws Exception {
+        ConnectionPool first = pools.get();
+        ConnectionPool second = pools.get();
+        String firstName = objectNameOf(first);
+
+        second.setSize(20);
+
+        assertThat(readAttributeValue(firstName, "size")).isEqualTo(10);
+        assertThat(readAttributeValue(objectNameOf(second), "size")).isEqualTo(20);
+
+        pools.destroy(first);
+
+        assertThat(server.isRegistered(new ObjectName(firstName))).isFalse();
+        pools.destroy(second);
+    }
+
+    @Test
+    public void shouldRegisterInstanceCreatedByApplication() throws Exception {
+        ConnectionPool pool = new ConnectionPool();
+
+        ObjectName name = mBeanInstances.register(pool, Collections.singletonMap("name", "manual"));
+
+        assertThat(name.getKeyProperty("name")).isEqualTo("manual");
+        assertThat(readAttributeValue(name.toString(), "size")).isEqualTo(10);
+        assertThat(mBeanInstances.unregister(pool)).isTrue();
+    }
+
+    @Test
+    public void shouldSendNotificationsPublishedByInstance() throws Exception {
+        ConnectionPool pool = pools.get();
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        server.addNotificationListener(new ObjectName(objectNameOf(pool)), (notification, handback) -> received.add(notification), null, null);
+
+        pool.resize(15);
+
+        Notification notification = received.poll(5, TimeUnit.SECONDS);
+        assertThat(notification).isNotNull();
+        assertThat(notification.getType()).isEqualTo("pool.resized");
+        assertThat(notification.getMessage()).isEqualTo(pool.getName() + " resized to 15");
+        pools.destroy(pool);
+    }
+
+    @Test
+    public void shouldForwardEventsAsNotificationsOfEveryInstance() throws Exception {
+        ConnectionPool first = pools.get();
+        ConnectionPool second = pools.get();
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        server.addNotificationListener(new ObjectName(objectNameOf(first)), (notification, handback) -> received.add(notification), null, null);
+        server.addNotificationListener(new ObjectName(objectNameOf(second)), (notification, handback) -> received.add(notification), null, null);
+
+        poolExhausted.fire(new PoolExhausted("orders"));
+
+        Notification notification = received.poll(5, TimeUnit.SECONDS);
+        assertThat(notification).isNotNull();
+        assertThat(notification.getType()).isEqualTo(PoolExhausted.class.getName());
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isNotNull();
+        pools.destroy(first);
+        pools.destroy(second);
+    }
+
+    private static String objectNameOf(ConnectionPool pool) {
+        return String.format("%s:type=%s,name=%s", ConnectionPool.class.getPackage().getName(), ConnectionPool.class.getSimpleName(),
+                pool.getName());
+    }
+}
@@ -1,7 +1,10 @@
 package com.cenerino.jmxext;
 
+import static com.cenerino.jmxext.util.JmxUtil.addNotificationListener;
 import static com.cenerino.jmxext.util.JmxUtil.invokeMethod;
 import static com.cenerino.jmxext.util.JmxUtil.isRegistered;
+import static com.cenerino.jmxext.util.JmxUtil.objectNameOf;
+import static com.cenerino.jmxext.util.JmxUtil.readAttributeValue;
 import static com.cenerino.jmxext.util.JmxUtil.readBeanAttributeValue;
 import static com.cenerino.jmxext.util.JmxUtil.readBeanAttributeValues;
 import static com.cenerino.jmxext.util.JmxUtil.setBeanAttributeValue;
@@ -10,9 +13,18 @@ import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jboss.shrinkwrap.api.asset.EmptyAsset.INSTANCE;
 
+import java.lang.management.ManagementFactory;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
+import javax.management.MBeanInfo;
+import javax.management.Notification;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
 
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
@@ -23,8 +35,12 @@ import org.junit.runner.RunWith;
 
 import com.cenerino.jmxext.beans.Car;
 import com.cenerino.jmxext.beans.Country;
+import com.cenerino.jmxext.beans.Crew;
+import com.cenerino.jmxext.beans.Invoice;
 import com.cenerino.jmxext.beans.Order;
+import com.cenerino.jmxext.beans.PaymentFailed;
 import com.cenerino.jmxext.beans.Person;
+import com.cenerino.jmxext.beans.ShiftContext;
 
 @RunWith(Arquillian.class)
 public class JmxExtensionIntegTest {
@@ -38,6 +54,12 @@ public class JmxExtensionIntegTest {
     @Inject
     private Order order;
 
+    @Inject
+    private Invoice invoice;
+
+    @Inject
+    private Event<PaymentFailed> paymentFailed;
+
     @Deployment
     public static JavaArchive createDeployment() {
         return ShrinkWrap.create(JavaArchive.class).addPackages(true, "com.cenerino.jmxext").addAsManifestResource(INSTANCE, "beans.xml");
@@ -96,12 +118,90 @@ public class JmxExtensionIntegTest {
     }
 
     @Test
-    public void shouldNotReferenceSameInstanceWhenBeanIsNotApplicationScoped() {
+    public void shouldPublishLatencyOfTimedMethods() {
+        long calls = (long) readBeanAttributeValue(Invoice.class, "add.count");
+
+        invoice.add(10);
+        invoice.add(5);
+
+        assertThat(readBeanAttributeValue(Invoice.class, "add.count")).isEqualTo(calls + 2);
+        assertThat((double) readBeanAttributeValue(Invoice.class, "add.maxMicros")).isPositive();
+    }
+
+    @Test
+    public void shouldPublishMetricFields() {
+        long items = (long) readBeanAttributeValue(Invoice.class, "items");
+
+        invoice.add(1);
+
+        assertThat(readBeanAttributeValue(Invoice.class, "items")).isEqualTo(items + 1);
+    }
+
+    @Test
+    public void shouldReadCurrentInstanceOfPseudoScopedBean() {
+        int number = (int) readBeanAttributeValue(Crew.class, "number");
+
+        ShiftContext.rotate();
+
+        assertThat(readBeanAttributeValue(Crew.class, "number")).isEqualTo(number + 1);
+    }
+
+    @Test
+    public void shouldNotPublishMetricFieldsOfBeanWithManyInstances() throws Exception {
+        MBeanInfo info = ManagementFactory.getPlatformMBeanServer().getMBeanInfo(objectNameOf(Order.class));
+
+        assertThat(info.getAttributes()).extracting("name").contains("status").doesNotContain("updates");
+    }
+
+    @Test
+    public void shouldSendNotificationsPublishedByBean() throws InterruptedException {
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        addNotificationListener(Invoice.class, (notification, handback) -> received.add(notification));
+
+        invoice.pay();
+
+        Notification notification = received.poll(5, TimeUnit.SECONDS);
+        assertThat(notification).isNotNull();
+        assertThat(notification.getType()).isEqualTo("invoice.paid");
+    }
+
+    @Test
+    public void shouldForwardEventsAsNotifications() throws InterruptedException {
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        addNotificationListener(Invoice.class, (notification, handback) -> received.add(notification));
+
+        paymentFailed.fire(new PaymentFailed("card expired"));
+
+        Notification notification = received.poll(5, TimeUnit.SECONDS);
+        assertThat(notification).isNotNull();
+        assertThat(notification.getType()).isEqualTo(PaymentFailed.class.getName());
+        assertThat(notification.getMessage()).isEqualTo("Payment failed: card expired");
+    }
+
+    @Test
+    public void shouldOwnSingleInstanceWhenBeanIsDependent() {
         assertThat(order.getStatus()).isEqualTo("Initial");
 
         setBeanAttributeValue(Order.class, "status", "Delivered");
 
         assertThat(order.getStatus()).isEqualTo("Initial");
-        assertThat(readBeanAttributeValue(Order.class, "status")).isEqualTo("Initial");
+        assertThat(readBeanAttributeValue(Order.class, "status")).isEqualTo("Delivered");
+        assertThat(readAttributeValue("jmxext:type=Stats", "DependentInstances")).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldListRegisteredMBeansInStats() {
+        assertThat((String[]) readAttributeValue("jmxext:type=Stats", "MBeans")).contains("com.cenerino.jmxext.beans:type=Person",
+                "com.cenerino.jmxext.beans:type=Order");
+    }
+
+    @Test
+    public void shouldReadAttributesOfAllMBeansInOneSnapshot() throws Exception {
+        CompositeData snapshot = (CompositeData) ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName("jmxext:type=Registry"),
+                "snapshot", new Object[] { "com.cenerino.jmxext.beans:*" }, new String[] { String.class.getName() });
+        CompositeData person = (CompositeData) snapshot.get("com.cenerino.jmxext.beans:type=Person");
+
+        assertThat(person.get("name")).isEqualTo("anonymous");
+        assertThat(snapshot.containsKey("com.cenerino.jmxext.beans:type=Order")).isTrue();
     }
 }
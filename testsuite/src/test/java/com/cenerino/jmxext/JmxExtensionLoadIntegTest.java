@@ -0,0 +1,164 @@
+package com.cenerino.jmxext;
+
+import static com.cenerino.jmxext.util.JmxUtil.objectNameOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.shrinkwrap.api.asset.EmptyAsset.INSTANCE;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.cenerino.jmxext.beans.Order;
+import com.cenerino.jmxext.beans.Person;
+import com.cenerino.jmxext.beans.Turnstile;
+
+/**
+ * Drives the platform MBeanServer from an increasing number of threads, each making the same mix of reads, writes and invocations
+ * of MBeans backed by the container's beans, and prints the throughput and latency percentiles of every run. The thread counts and
+ * the number of operations per thread can be given with {@code -Dcom.cenerino.jmxext.load.threads=1,2,4,8} and
+ * {@code -Dcom.cenerino.jmxext.load.operations=10000}.
+ */
+@RunWith(Arquillian.class)
+public class JmxExtensionLoadIntegTest {
+
+    private static final int[] THREADS = Arrays.stream(System.getProperty("com.cenerino.jmxext.load.threads", "1,2,4,8").split(","))
+            .mapToInt(count -> Integer.parseInt(count.trim())).toArray();
+    private static final int OPERATIONS = Integer.getInteger("com.cenerino.jmxext.load.operations", 10_000);
+    private static final String[] PERSON_ATTRIBUTES = { "name", "age" };
+    private static final String[] NO_SIGNATURE = {};
+    private static final Object[] NO_ARGS = {};
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final ObjectName personName = objectNameOf(Person.class);
+    private final ObjectName orderName = objectNameOf(Order.class);
+    private final ObjectName turnstileName = objectNameOf(Turnstile.class);
+
+    @Inject
+    private Turnstile turnstile;
+
+    @Deployment
+    public static JavaArchive createDeployment() {
+        return ShrinkWrap.create(JavaArchive.class).addPackages(true, "com.cenerino.jmxext").addAsManifestResource(INSTANCE, "beans.xml");
+    }
+
+    @Test
+    public void shouldServeConcurrentMixedTrafficWithoutErrorsOrLostUpdates() throws Exception {
+        // Not reported, so that the first run is not measured while the code is still being compiled
+        Queue<Throwable> warmUpErrors = new ConcurrentLinkedQueue<>();
+        run(1, warmUpErrors);
+        assertThat(warmUpErrors).isEmpty();
+
+        System.out.println(String.format("%8s %12s %10s %10s %10s %10s", "threads", "ops/s", "p50 (us)", "p99 (us)", "p99.9 (us)", "max (us)"));
+
+        for (int threads : THREADS) {
+            long passesBefore = turnstile.getPasses();
+            Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            Run run = run(threads, errors);
+
+            assertThat(errors).isEmpty();
+            // Every thread invokes 'pass' on one operation out of four
+            assertThat(turnstile.getPasses() - passesBefore).isEqualTo(threads * (long) ((OPERATIONS + 3) / 4));
+            assertThat(turnstile.getCapacity()).isBetween(0, threads * OPERATIONS);
+            System.out.println(run.report(threads));
+        }
+    }
+
+    private Run run(int threads, Queue<Throwable> errors) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> latencies = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                latencies.add(executor.submit(() -> {
+                    start.await();
+                    return drive(thread, errors);
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            List<long[]> results = new ArrayList<>();
+
+            for (Future<long[]> future : latencies) {
+                results.add(future.get(5, TimeUnit.MINUTES));
+            }
+
+            return new Run(System.nanoTime() - begin, results);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Reads and writes of a normal-scoped bean, reads of a dependent one and invocations of an operation, in equal parts
+    private long[] drive(int thread, Queue<Throwable> errors) {
+        long[] latencies = new long[OPERATIONS];
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            long start = System.nanoTime();
+
+            try {
+                switch (i % 4) {
+                case 0:
+                    server.invoke(turnstileName, "pass", NO_ARGS, NO_SIGNATURE);
+                    break;
+                case 1:
+                    server.setAttribute(turnstileName, new Attribute("capacity", thread * OPERATIONS + i));
+                    break;
+                case 2:
+                    assertThat(server.getAttributes(personName, PERSON_ATTRIBUTES)).hasSize(2);
+                    break;
+                default:
+                    assertThat(server.getAttribute(orderName, "status")).isEqualTo("Initial");
+                }
+            } catch (Throwable e) {
+                errors.add(e);
+            }
+
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        return latencies;
+    }
+
+    private static class Run {
+
+        private final long nanos;
+        private final long[] latencies;
+
+        Run(long nanos, List<long[]> results) {
+            this.nanos = nanos;
+            this.latencies = results.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        }
+
+        String report(int threads) {
+            return String.format("%8d %12.0f %10.1f %10.1f %10.1f %10.1f", threads, latencies.length * 1e9 / nanos, micros(50), micros(99),
+                    micros(99.9), latencies[latencies.length - 1] / 1e3);
+        }
+
+        private double micros(double percentile) {
+            int index = (int) Math.ceil(latencies.length * percentile / 100) - 1;
+            return latencies[Math.max(0, index)] / 1e3;
+        }
+    }
+}
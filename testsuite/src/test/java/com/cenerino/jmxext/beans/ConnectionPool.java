@@ -0,0 +1,40 @@
+package com.cenerino.jmxext.beans;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+import com.cenerino.jmxext.ForwardEvents;
+import com.cenerino.jmxext.MBean;
+import com.cenerino.jmxext.NotificationPublisher;
+import com.cenerino.jmxext.ObjectNameKey;
+
+@MBean(description = "Connection pool bean", perInstance = true, notificationTypes = "pool.resized")
+@ForwardEvents(PoolExhausted.class)
+public class ConnectionPool {
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+    private final String name = "pool-" + sequence.incrementAndGet();
+    private volatile int size = 10;
+
+    @Inject
+    private NotificationPublisher notifications;
+
+    @ObjectNameKey("name")
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public void resize(int size) {
+        this.size = size;
+        notifications.publish("pool.resized", name + " resized to " + size);
+    }
+}
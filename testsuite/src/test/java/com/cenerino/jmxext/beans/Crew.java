@@ -0,0 +1,17 @@
+package com.cenerino.jmxext.beans;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.cenerino.jmxext.MBean;
+
+@Shift
+@MBean(description = "Crew bean")
+public class Crew {
+
+    private static final AtomicInteger created = new AtomicInteger();
+    private final int number = created.incrementAndGet();
+
+    public int getNumber() {
+        return number;
+    }
+}
@@ -0,0 +1,39 @@
+package com.cenerino.jmxext.beans;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.cenerino.jmxext.ForwardEvents;
+import com.cenerino.jmxext.MBean;
+import com.cenerino.jmxext.NotificationPublisher;
+import com.cenerino.jmxext.Timed;
+import com.cenerino.jmxext.metrics.Counter;
+import com.cenerino.jmxext.metrics.Metric;
+
+@ApplicationScoped
+@MBean(description = "Invoice bean", notificationTypes = "invoice.paid")
+@ForwardEvents(PaymentFailed.class)
+public class Invoice {
+
+    @Metric
+    private final Counter items = new Counter();
+
+    @Inject
+    private NotificationPublisher notifications;
+
+    private int total;
+
+    public int getTotal() {
+        return total;
+    }
+
+    @Timed
+    public void add(int amount) {
+        total += amount;
+        items.increment();
+    }
+
+    public void pay() {
+        notifications.publish("invoice.paid", "Invoice of " + total + " paid");
+    }
+}
@@ -1,10 +1,15 @@
 package com.cenerino.jmxext.beans;
 
 import com.cenerino.jmxext.MBean;
+import com.cenerino.jmxext.metrics.Counter;
+import com.cenerino.jmxext.metrics.Metric;
 
 @MBean
 public class Order {
 
+    @Metric
+    private final Counter updates = new Counter();
+
     private String status = "Initial";
 
     public String getStatus() {
@@ -13,5 +18,6 @@ public class Order {
 
     public void setStatus(String status) {
         this.status = status;
+        updates.increment();
     }
 }
@@ -0,0 +1,15 @@
+package com.cenerino.jmxext.beans;
+
+public class PaymentFailed {
+
+    private final String reason;
+
+    public PaymentFailed(String reason) {
+        this.reason = reason;
+    }
+
+    @Override
+    public String toString() {
+        return "Payment failed: " + reason;
+    }
+}
@@ -0,0 +1,15 @@
+package com.cenerino.jmxext.beans;
+
+public class PoolExhausted {
+
+    private final String pool;
+
+    public PoolExhausted(String pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public String toString() {
+        return "Pool exhausted: " + pool;
+    }
+}
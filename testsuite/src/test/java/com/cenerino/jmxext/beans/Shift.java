@@ -0,0 +1,20 @@
+package com.cenerino.jmxext.beans;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.inject.Scope;
+
+/**
+ * Pseudo-scope whose current instance changes whenever {@link ShiftContext#rotate()} is called.
+ */
+@Scope
+@Retention(RUNTIME)
+@Target({ TYPE, METHOD, FIELD })
+public @interface Shift {
+}
@@ -0,0 +1,47 @@
+package com.cenerino.jmxext.beans;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.Extension;
+
+public class ShiftContext implements Context, Extension {
+
+    private static final Map<Contextual<?>, Object> instances = new ConcurrentHashMap<>();
+
+    public static void rotate() {
+        instances.clear();
+    }
+
+    void addContext(@Observes AfterBeanDiscovery event) {
+        event.addContext(this);
+    }
+
+    @Override
+    public Class<? extends Annotation> getScope() {
+        return Shift.class;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext) {
+        return (T) instances.computeIfAbsent(contextual, key -> contextual.create(creationalContext));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Contextual<T> contextual) {
+        return (T) instances.get(contextual);
+    }
+
+    @Override
+    public boolean isActive() {
+        return true;
+    }
+}
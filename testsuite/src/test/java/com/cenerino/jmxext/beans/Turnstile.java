@@ -0,0 +1,31 @@
+package com.cenerino.jmxext.beans;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import com.cenerino.jmxext.MBean;
+
+@ApplicationScoped
+@MBean(description = "Turnstile bean")
+public class Turnstile {
+
+    private final AtomicLong passes = new AtomicLong();
+    private volatile int capacity;
+
+    public long getPasses() {
+        return passes.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long pass() {
+        return passes.incrementAndGet();
+    }
+}
@@ -11,6 +11,7 @@ import javax.management.Attribute;
 import javax.management.AttributeList;
 import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
 
 public final class JmxUtil {
@@ -33,6 +34,14 @@ public final class JmxUtil {
         }
     }
 
+    public static Object readAttributeValue(String objectName, String attribute) {
+        try {
+            return mbeanServer.getAttribute(new ObjectName(objectName), attribute);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static List<Object> readBeanAttributeValues(Class<?> mbeanClass, String... attributes) {
         try {
             AttributeList attributeList = mbeanServer.getAttributes(getObjectNameFor(mbeanClass), attributes);
@@ -74,6 +83,22 @@ public final class JmxUtil {
         }
     }
 
+    public static void addNotificationListener(Class<?> mbeanClass, NotificationListener listener) {
+        try {
+            mbeanServer.addNotificationListener(getObjectNameFor(mbeanClass), listener, null, null);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static ObjectName objectNameOf(Class<?> mbeanClass) {
+        try {
+            return getObjectNameFor(mbeanClass);
+        } catch (MalformedObjectNameException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static ObjectName getObjectNameFor(Class<?> clazz) throws MalformedObjectNameException {
         return new ObjectName(String.format("%s:type=%s", clazz.getPackage().getName(), clazz.getSimpleName()));
     }